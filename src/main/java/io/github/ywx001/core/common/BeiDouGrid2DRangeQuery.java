@@ -2,15 +2,39 @@ package io.github.ywx001.core.common;
 
 import io.github.ywx001.core.constants.BeiDouGridConstants;
 import io.github.ywx001.core.decoder.BeiDouGridDecoder;
-import io.github.ywx001.core.encoder.BeiDouGridEncoder;
 import io.github.ywx001.core.model.BeiDouGeoPoint;
+import io.github.ywx001.core.model.BeiDouGridCoverageDiff;
+import io.github.ywx001.core.model.BeiDouGridQueryBudget;
+import io.github.ywx001.core.model.BeiDouGridQueryResult;
 import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.*;
 import org.locationtech.jts.io.geojson.GeoJsonWriter;
+import org.locationtech.jts.operation.overlayng.OverlayNG;
+import org.locationtech.jts.operation.overlayng.OverlayNGRobust;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Queue;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 北斗二维网格范围查询工具类
@@ -21,8 +45,14 @@ public class BeiDouGrid2DRangeQuery {
 
     private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
 
+    /**
+     * 并行细化时拆分任务的阈值：目标层级后代数超过该值的网格拆分为多个子任务
+     */
+    private static final long SPLIT_THRESHOLD = 1 << 14;
+
     /**
      * 主方法：根据几何图形查找相交的二维网格码
+     * <p>查询开始时预处理几何图形一次，参见 {@link #find2DGridCodesInRange(BeiDouGridPreparedGeometry, int)}。</p>
      *
      * @param geom        几何图形对象，支持多边形、线、点等JTS几何类型
      * @param targetLevel 目标网格级别，范围1-10
@@ -30,41 +60,346 @@ public class BeiDouGrid2DRangeQuery {
      * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
      */
     public static Set<String> find2DGridCodesInRange(Geometry geom, int targetLevel) {
+        validateParameters(geom, targetLevel);
+        return find2DGridCodesInRange(new BeiDouGridPreparedGeometry(geom), targetLevel);
+    }
+
+    /**
+     * 根据预处理几何图形查找相交的二维网格码
+     * <p>从相交的1级网格开始以打包码逐级细化，每个子网格只与预处理几何图形做一次相交判断，
+     * 单次判断的开销与几何图形顶点数近似成对数关系。同一几何图形多次查询时可复用同一个预处理几何图形。</p>
+     *
+     * @param prepared    预处理几何图形
+     * @param targetLevel 目标网格级别，范围1-10
+     * @return 与几何图形相交的所有指定级别网格码集合
+     * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
+     */
+    public static Set<String> find2DGridCodesInRange(BeiDouGridPreparedGeometry prepared, int targetLevel) {
         long startTime = System.currentTimeMillis();
+        if (prepared == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        validateParameters(prepared.getGeometry(), targetLevel);
+
+        // 对每个相交的一级网格并行递归细化
+        long[] level1Cells = findIntersectingLevel1Cells(prepared);
+        Set<String> result = refineInParallel(level1Cells, targetLevel, prepared,
+                local -> cell -> local.add(BeiDouGridPackedCode.toCode2D(cell)));
+
+        long totalTime = System.currentTimeMillis() - startTime;
+        log.debug("总计算完成：找到 {} 个{}级网格，总耗时 {}ms", result.size(), targetLevel, totalTime);
+
+        return result;
+    }
+
+    /**
+     * 统计与几何图形相交的二维网格数量
+     * <p>细化过程与 {@link #find2DGridCodesInRange(BeiDouGridPreparedGeometry, int)} 相同，
+     * 但完全位于几何图形内部的网格直接按各级划分数算出其目标层级的后代数，只有与边界相交的网格才继续细化，
+     * 不生成任何网格码。结果与 {@code find2DGridCodesInRange(prepared, targetLevel).size()} 完全相同，
+     * 耗时只与边界网格数有关。</p>
+     *
+     * @param prepared    预处理几何图形
+     * @param targetLevel 目标网格级别，范围1-10
+     * @return 相交的目标级别网格数
+     * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
+     */
+    public static long count2DGridCells(BeiDouGridPreparedGeometry prepared, int targetLevel) {
+        if (prepared == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        validateParameters(prepared.getGeometry(), targetLevel);
+
+        return Arrays.stream(findIntersectingLevel1Cells(prepared)).parallel()
+                .map(level1Cell -> countCells(level1Cell, targetLevel, prepared,
+                        new long[targetLevel][BeiDouGridConstants.MAX_CHILD_COUNT], new double[4]))
+                .sum();
+    }
+
+    /**
+     * 统计与几何图形相交的二维网格数量
+     *
+     * @param geom        几何图形对象，支持多边形、线、点等JTS几何类型
+     * @param targetLevel 目标网格级别，范围1-10
+     * @return 相交的目标级别网格数
+     * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
+     * @see #count2DGridCells(BeiDouGridPreparedGeometry, int)
+     */
+    public static long count2DGridCodesInRange(Geometry geom, int targetLevel) {
         validateParameters(geom, targetLevel);
+        return count2DGridCells(new BeiDouGridPreparedGeometry(geom), targetLevel);
+    }
 
-        Set<String> result = new HashSet<>();
+    /**
+     * 逐个回调与几何图形相交的二维网格打包码（流式查询）
+     * <p>细化过程与 {@link #find2DGridCodesInRange(BeiDouGridPreparedGeometry, int)} 相同，但在调用线程上顺序进行，
+     * 网格一经确定立即交给回调，不保存结果集合，内存占用只与层级数有关，与结果规模无关。
+     * 每个网格只回调一次，顺序为逐级深度优先。可用 {@link BeiDouGridPackedCode#toCode2D} 转换为网格码。</p>
+     *
+     * @param prepared    预处理几何图形
+     * @param targetLevel 目标网格级别，范围1-10
+     * @param consumer    网格打包码回调
+     * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
+     */
+    public static void forEach2DGridCell(BeiDouGridPreparedGeometry prepared, int targetLevel, LongConsumer consumer) {
+        if (prepared == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        validateParameters(prepared.getGeometry(), targetLevel);
 
-        Envelope envelope = geom.getEnvelopeInternal();
-        double minLng = envelope.getMinX();
-        double maxLng = envelope.getMaxX();
-        double minLat = envelope.getMinY();
-        double maxLat = envelope.getMaxY();
+        long[][] buffers = new long[targetLevel][BeiDouGridConstants.MAX_CHILD_COUNT];
+        double[] bounds = new double[4];
+        for (long level1Cell : findIntersectingLevel1Cells(prepared)) {
+            refineCells(level1Cell, targetLevel, prepared, buffers, bounds, consumer);
+        }
+    }
 
-        // 获取目标层级的网格尺寸
-        BigDecimal[] gridSize = BeiDouGridConstants.GRID_SIZES_DEGREES[targetLevel];
-        double lngSize = gridSize[0].doubleValue();
-        double latSize = gridSize[1].doubleValue();
+    /**
+     * 按需逐个生成与几何图形相交的二维网格打包码
+     * <p>返回的迭代器每次调用 {@code next} 时才继续细化到下一个相交网格，未取出的网格不会被计算，
+     * 适合只取部分结果或由调用方控制消费速度的场景。结果与 {@link #forEach2DGridCell} 相同。</p>
+     *
+     * @param prepared    预处理几何图形
+     * @param targetLevel 目标网格级别，范围1-10
+     * @return 网格打包码迭代器
+     * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
+     */
+    public static PrimitiveIterator.OfLong iterate2DGridCells(BeiDouGridPreparedGeometry prepared, int targetLevel) {
+        if (prepared == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        validateParameters(prepared.getGeometry(), targetLevel);
+        return new CellIterator(prepared, targetLevel, findIntersectingLevel1Cells(prepared));
+    }
 
-        // 生成候选网格
-        for (double lng = minLng; lng <= maxLng + lngSize; lng += lngSize) {
-            for (double lat = minLat; lat <= maxLat + latSize; lat += latSize) {
+    /**
+     * 以惰性顺序流返回与几何图形相交的二维网格码
+     * <p>流由 {@link #iterate2DGridCells} 支持，只在终端操作拉取元素时才细化，
+     * 可直接接入写出管道（如 {@code forEach(writer::write)}）或配合 {@code limit} 提前结束。</p>
+     *
+     * @param geom        几何图形对象，支持多边形、线、点等JTS几何类型
+     * @param targetLevel 目标网格级别，范围1-10
+     * @return 网格码流，元素互不重复
+     * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
+     */
+    public static Stream<String> stream2DGridCodes(Geometry geom, int targetLevel) {
+        validateParameters(geom, targetLevel);
+        return stream2DGridCells(new BeiDouGridPreparedGeometry(geom), targetLevel)
+                .mapToObj(BeiDouGridPackedCode::toCode2D);
+    }
 
-                // 生成网格编码
-                String gridCode = BeiDouGridEncoder.encode2D(
-                        new BeiDouGeoPoint(lng, lat, 0), targetLevel
-                );
+    /**
+     * 以惰性顺序流返回与几何图形相交的二维网格打包码
+     *
+     * @param prepared    预处理几何图形
+     * @param targetLevel 目标网格级别，范围1-10
+     * @return 网格打包码流，元素互不重复
+     * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
+     */
+    public static LongStream stream2DGridCells(BeiDouGridPreparedGeometry prepared, int targetLevel) {
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(iterate2DGridCells(prepared, targetLevel),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * 在预算内查找与几何图形相交的二维网格码
+     * <p>在调用线程上顺序细化，每访问一个网格检查一次预算（超时和取消每访问256个网格检查一次）。
+     * 任一限制达到时立即停止，返回已得到的部分结果及停止原因；部分结果中的网格都与几何图形相交。
+     * 预算允许降级时，因网格数或访问数超出预算而停止的查询会逐级降低目标级别重新进行，超时时间对各次查询累计计算。</p>
+     *
+     * @param prepared    预处理几何图形
+     * @param targetLevel 目标网格级别，范围1-10
+     * @param budget      查询预算
+     * @return 查询结果，包含网格码、实际级别和停止原因
+     * @throws IllegalArgumentException 如果几何图形为空、目标级别不在 1-10 范围内或预算为空
+     */
+    public static BeiDouGridQueryResult find2DGridCodesInRange(BeiDouGridPreparedGeometry prepared, int targetLevel,
+                                                               BeiDouGridQueryBudget budget) {
+        if (prepared == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        validateParameters(prepared.getGeometry(), targetLevel);
+        return queryWithBudget(prepared, targetLevel, budget, level -> 1,
+                (level, result) -> cell -> result.add(BeiDouGridPackedCode.toCode2D(cell)));
+    }
 
-                // 检查网格是否与几何图形相交
-                if (isGridIntersectsMath(gridCode, geom, envelope)) {
-                    result.add(gridCode);
+    /**
+     * 带预算的顺序细化，预算允许时逐级降级
+     *
+     * @param weightFactory 由级别求出每个二维网格对应的结果网格数
+     * @param sinkFactory   由级别和结果集合创建目标层级网格回调
+     */
+    static BeiDouGridQueryResult queryWithBudget(BeiDouGridPreparedGeometry prepared, int targetLevel,
+                                                 BeiDouGridQueryBudget budget, IntUnaryOperator weightFactory,
+                                                 BiFunction<Integer, Set<String>, LongConsumer> sinkFactory) {
+        if (budget == null) {
+            throw new IllegalArgumentException("查询预算不能为空");
+        }
+        long startTime = System.currentTimeMillis();
+        long deadline = budget.getTimeoutMillis() > 0 ? System.nanoTime() + budget.getTimeoutMillis() * 1_000_000 : 0;
+        long[] level1Cells = findIntersectingLevel1Cells(prepared);
+
+        for (int level = targetLevel; ; level--) {
+            Set<String> result = new HashSet<>();
+            BudgetTracker tracker = new BudgetTracker(budget, deadline, weightFactory.applyAsInt(level));
+            LongConsumer sink = sinkFactory.apply(level, result);
+            long[][] buffers = new long[level][BeiDouGridConstants.MAX_CHILD_COUNT];
+            double[] bounds = new double[4];
+            for (long level1Cell : level1Cells) {
+                if (!refineCells(level1Cell, level, prepared, buffers, bounds, false, tracker, sink)) {
+                    break;
                 }
             }
+            BeiDouGridQueryResult.StopReason reason = tracker.reason;
+            boolean retry = budget.isCoarsen() && level > 1 && (reason == BeiDouGridQueryResult.StopReason.MAX_CELLS
+                    || reason == BeiDouGridQueryResult.StopReason.MAX_VISITED_NODES);
+            log.debug("预算查询{}级：找到 {} 个网格，访问 {} 个网格，结束原因 {}，累计耗时 {}ms",
+                    level, result.size(), tracker.visited, reason, System.currentTimeMillis() - startTime);
+            if (!retry) {
+                return new BeiDouGridQueryResult(result, level, reason, tracker.visited);
+            }
+        }
+    }
+
+    /**
+     * 增量计算几何图形变化后的二维网格覆盖差异
+     * <p>网格与新旧几何图形的相交关系发生变化时，必然与两者的对称差相交，
+     * 因此只细化与对称差相交的网格，逐个判断是否与新几何图形相交并与原覆盖比较，
+     * 计算量与变化区域的大小成正比，与几何图形本身的大小无关。
+     * 原覆盖须为同一级别的 {@link #find2DGridCodesInRange(Geometry, int)} 结果（或据此增量维护的结果），
+     * 此时原覆盖加上新增网格、去掉移除网格即为新几何图形的覆盖。</p>
+     * <p>对称差为混合维度的几何图形集合时（如面变为线）按各成分分别细化；
+     * 对称差无法计算时退化为细化新旧几何图形的全部网格，结果不变。</p>
+     *
+     * @param oldGeom     变化前的几何图形
+     * @param oldCodes    变化前几何图形的网格码覆盖
+     * @param newGeom     变化后的几何图形
+     * @param targetLevel 目标网格级别，范围1-10
+     * @return 新增和移除的网格码
+     * @throws IllegalArgumentException 如果几何图形或原覆盖为空、目标级别不在 1-10 范围内
+     */
+    public static BeiDouGridCoverageDiff diff2DGridCodesInRange(Geometry oldGeom, Set<String> oldCodes,
+                                                                Geometry newGeom, int targetLevel) {
+        long startTime = System.currentTimeMillis();
+        validateParameters(oldGeom, targetLevel);
+        validateParameters(newGeom, targetLevel);
+        if (oldCodes == null) {
+            throw new IllegalArgumentException("原覆盖不能为空");
+        }
+
+        Geometry changed;
+        try {
+            changed = OverlayNGRobust.overlay(oldGeom, newGeom, OverlayNG.SYMDIFFERENCE);
+        } catch (TopologyException | IllegalArgumentException e) {
+            log.debug("对称差计算失败，细化新旧几何图形的全部网格：{}", e.getMessage());
+            changed = GEOMETRY_FACTORY.createGeometryCollection(new Geometry[]{oldGeom, newGeom});
+        }
+
+        Set<String> added = new HashSet<>();
+        Set<String> removed = new HashSet<>();
+        BeiDouGridPreparedGeometry prepared = new BeiDouGridPreparedGeometry(newGeom);
+        double[] bounds = new double[4];
+        LongConsumer consumer = cell -> {
+            BeiDouGridDecoder.decode2DBounds(cell, bounds);
+            boolean intersects = prepared.intersects(bounds);
+            String code = BeiDouGridPackedCode.toCode2D(cell);
+            if (intersects != oldCodes.contains(code)) {
+                (intersects ? added : removed).add(code);
+            }
+        };
+        // 与多个成分相交的网格会重复判断，结果集合不受影响
+        List<Geometry> parts = new ArrayList<>();
+        collectHomogeneousParts(changed, parts);
+        for (Geometry part : parts) {
+            forEach2DGridCell(new BeiDouGridPreparedGeometry(part), targetLevel, consumer);
         }
 
         long totalTime = System.currentTimeMillis() - startTime;
-        log.debug("总计算完成：找到 {} 个{}级网格，总耗时 {}ms", result.size(), targetLevel, totalTime);
+        log.debug("覆盖差异计算完成：{}级新增 {} 个网格，移除 {} 个网格，总耗时 {}ms",
+                targetLevel, added.size(), removed.size(), totalTime);
 
+        return new BeiDouGridCoverageDiff(added, removed);
+    }
+
+    /**
+     * 把几何图形集合递归拆分为单一类型的几何图形（点、线、面及其Multi类型）
+     */
+    private static void collectHomogeneousParts(Geometry geom, List<Geometry> parts) {
+        if (geom.isEmpty()) {
+            return;
+        }
+        if (Geometry.TYPENAME_GEOMETRYCOLLECTION.equals(geom.getGeometryType())) {
+            for (int i = 0; i < geom.getNumGeometries(); i++) {
+                collectHomogeneousParts(geom.getGeometryN(i), parts);
+            }
+        } else {
+            parts.add(geom);
+        }
+    }
+
+    /**
+     * 根据几何图形查找相交的二维网格码（扫描线栅格化）
+     * <p>结果与 {@link #find2DGridCodesInRange(Geometry, int)} 相同（几何图形恰好擦过网格角点、在浮点舍入范围内的网格除外），
+     * 计算方式参见 {@link BeiDouGridScanlineRasterizer}：直接在目标层级的全球格网上按行求出相交的列区间，
+     * 不逐级细化，也不做逐网格的几何判断，适合狭长、斜向的多边形和线。</p>
+     *
+     * @param geom        几何图形对象，支持多边形、线、点等JTS几何类型
+     * @param targetLevel 目标网格级别，范围1-10
+     * @return 与几何图形相交的所有指定级别网格码集合
+     * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
+     */
+    public static Set<String> find2DGridCodesByScanline(Geometry geom, int targetLevel) {
+        long startTime = System.currentTimeMillis();
+        validateParameters(geom, targetLevel);
+
+        Set<String> result = new HashSet<>();
+        BeiDouGridScanlineRasterizer.rasterize(geom, targetLevel, (latIndex, fromLngIndex, toLngIndex) -> {
+            for (long lngIndex = fromLngIndex; lngIndex <= toLngIndex; lngIndex++) {
+                result.add(BeiDouGridPackedCode.toCode2D(BeiDouGridPackedCode.fromLattice(targetLevel, lngIndex, latIndex)));
+            }
+        });
+
+        long totalTime = System.currentTimeMillis() - startTime;
+        log.debug("扫描线计算完成：找到 {} 个{}级网格，总耗时 {}ms", result.size(), targetLevel, totalTime);
+
+        return result;
+    }
+
+    /**
+     * 按线的方向查找线经过的二维网格码
+     * <p>沿线的每一段按 {@link BeiDouGridLineTraversal#traverse2D} 逐格遍历，只访问线经过的网格，
+     * 不做任何几何判断，适合高级别的长轨迹。网格按左闭右开划分，恰好只在网格线上擦过的网格不计入，
+     * 因此结果是 {@link #find2DGridCodesInRange(Geometry, int)} 结果的子集。</p>
+     *
+     * @param lineString  线
+     * @param targetLevel 目标网格级别，范围1-10
+     * @return 线经过的网格码，按线的方向排列，相邻重复的网格只保留一个
+     * @throws IllegalArgumentException 如果线为空或目标级别不在 1-10 范围内
+     */
+    public static List<String> find2DGridCodesWithLineString(LineString lineString, int targetLevel) {
+        long startTime = System.currentTimeMillis();
+        validateParameters(lineString, targetLevel);
+
+        List<String> result = new ArrayList<>();
+        long[] last = {BeiDouGridPackedCode.INVALID};
+        LongConsumer consumer = cell -> {
+            if (cell != last[0]) {
+                last[0] = cell;
+                result.add(BeiDouGridPackedCode.toCode2D(cell));
+            }
+        };
+        Coordinate[] coordinates = lineString.getCoordinates();
+        if (coordinates.length == 1) {
+            BeiDouGridLineTraversal.traverse2D(coordinates[0].x, coordinates[0].y, coordinates[0].x, coordinates[0].y,
+                    targetLevel, consumer);
+        }
+        for (int i = 0; i + 1 < coordinates.length; i++) {
+            BeiDouGridLineTraversal.traverse2D(coordinates[i].x, coordinates[i].y,
+                    coordinates[i + 1].x, coordinates[i + 1].y, targetLevel, consumer);
+        }
+
+        long totalTime = System.currentTimeMillis() - startTime;
+        log.debug("线遍历完成：找到 {} 个{}级网格，总耗时 {}ms", result.size(), targetLevel, totalTime);
 
         return result;
     }
@@ -82,17 +417,25 @@ public class BeiDouGrid2DRangeQuery {
         long startTime = System.currentTimeMillis();
         validateParameters(geom, targetLevel);
 
-        Set<String> result = new HashSet<>();
+        BeiDouGridPreparedGeometry prepared = new BeiDouGridPreparedGeometry(geom);
 
         // 1. 快速筛选一级网格
-        Set<String> level1Grids = findIntersectingLevel1Grids(geom);
+        Set<String> level1Grids = findIntersectingLevel1Grids(prepared);
 
         log.info("一级网格筛选完成，找到 {} 个网格，耗时 {}ms",
                 level1Grids.size(), System.currentTimeMillis() - startTime);
 
 
-        // 2. 对每个相交的一级网格进行递归细化（使用并行流）
-        level1Grids.parallelStream().forEach(level1Grid -> refineGrid(level1Grid, geom, targetLevel, 1, result));
+        // 2. 对每个相交的一级网格进行递归细化（使用并行流，各任务写入局部集合，结束后合并）
+        Set<String> result = new HashSet<>();
+        level1Grids.parallelStream()
+                .map(level1Grid -> {
+                    Set<String> local = new HashSet<>();
+                    refineGrid(level1Grid, prepared, targetLevel, 1, local, new String[targetLevel][], new double[4], false);
+                    return local;
+                })
+                .collect(Collectors.toList())
+                .forEach(result::addAll);
 
         long totalTime = System.currentTimeMillis() - startTime;
         log.debug("总计算完成：找到 " + result.size() + " 个" + targetLevel + "级网格，总耗时 " + totalTime + "ms");
@@ -103,89 +446,464 @@ public class BeiDouGrid2DRangeQuery {
     /**
      * 一级网格快速筛选
      */
-    private static Set<String> findIntersectingLevel1Grids(Geometry geom) {
-        // 1. 计算几何图形的边界范围
-        Envelope envelope = geom.getEnvelopeInternal();
-        double minLng = envelope.getMinX();
-        double maxLng = envelope.getMaxX();
-        double minLat = envelope.getMinY();
-        double maxLat = envelope.getMaxY();
-
-        // 2. 计算一级网格索引范围（一级网格尺寸：6°×4°）
-        int minLngIdx = (int) Math.floor(minLng / 6.0);
-        int maxLngIdx = (int) Math.floor(maxLng / 6.0);
-        int minLatIdx = (int) Math.floor(minLat / 4.0);
-        int maxLatIdx = (int) Math.floor(maxLat / 4.0);
-
-        // 3. 生成候选一级网格码
-        Set<String> candidateGrids = new HashSet<>();
+    private static Set<String> findIntersectingLevel1Grids(BeiDouGridPreparedGeometry prepared) {
+        Set<String> intersectingGrids = new HashSet<>();
+        for (long cell : findIntersectingLevel1Cells(prepared)) {
+            intersectingGrids.add(BeiDouGridPackedCode.toCode2D(cell));
+        }
+        return intersectingGrids;
+    }
+
+    /**
+     * 计算与几何图形相交的全部1级网格打包码
+     * <p>按经纬度符号区分半球：经度按6°、纬度按4°划分为全球格网，西经、南纬一侧的行列号自本初子午线/赤道向外递增。</p>
+     *
+     * @param prepared 预处理几何图形
+     * @return 相交的1级网格打包码
+     */
+    static long[] findIntersectingLevel1Cells(BeiDouGridPreparedGeometry prepared) {
+        Envelope envelope = prepared.getEnvelope();
+        if (envelope.isNull()) {
+            return new long[0];
+        }
+        int[] divisions = BeiDouGridConstants.GRID_DIVISIONS[1];
+        int lngColumns = divisions[0] / 2;
+        int latRows = divisions[1];
+        double lngSize = BeiDouGridConstants.GRID_SIZES_DEGREES[1][0].doubleValue();
+        double latSize = BeiDouGridConstants.GRID_SIZES_DEGREES[1][1].doubleValue();
+
+        // 全球格网中的带符号行列号：东经/北纬为0起，西经/南纬为-1起；下界取ceil-1以包含恰好在边界上相接的网格
+        int minLngIdx = Math.max((int) Math.ceil(envelope.getMinX() / lngSize) - 1, -lngColumns);
+        int maxLngIdx = Math.min((int) Math.floor(envelope.getMaxX() / lngSize), lngColumns - 1);
+        int minLatIdx = Math.max((int) Math.ceil(envelope.getMinY() / latSize) - 1, -latRows);
+        int maxLatIdx = Math.min((int) Math.floor(envelope.getMaxY() / latSize), latRows - 1);
+
+        long[] cells = new long[Math.max(0, (maxLngIdx - minLngIdx + 1) * (maxLatIdx - minLatIdx + 1))];
+        double[] bounds = new double[4];
+        int count = 0;
         for (int lngIdx = minLngIdx; lngIdx <= maxLngIdx; lngIdx++) {
             for (int latIdx = minLatIdx; latIdx <= maxLatIdx; latIdx++) {
-                String gridCode = generateLevel1GridCode(lngIdx, latIdx);
-                candidateGrids.add(gridCode);
+                long cell = BeiDouGridPackedCode.level1(latIdx < 0, lngIdx < 0,
+                        lngIdx < 0 ? -lngIdx - 1 : lngIdx, latIdx < 0 ? -latIdx - 1 : latIdx);
+                BeiDouGridDecoder.decode2DBounds(cell, bounds);
+                if (prepared.intersects(bounds)) {
+                    cells[count++] = cell;
+                }
             }
         }
+        return Arrays.copyOf(cells, count);
+    }
+
+    /**
+     * 并行细化各一级网格并汇总结果
+     * <p>细化以fork-join任务进行：目标层级后代数超过 {@link #SPLIT_THRESHOLD} 的网格拆分为每个子网格一个任务，
+     * 因此即使几何图形只与一个一级网格相交，也能由工作窃取调度到全部核心上；
+     * 后代数不超过阈值的网格由一个任务使用自己的缓冲区顺序细化，结果写入自己的局部列表。
+     * 任务之间只在结束时把局部列表交给汇总队列，全部任务结束后再由调用线程合并到一个集合中。
+     * 不同网格的后代互不重叠，合并时不会产生重复。</p>
+     *
+     * @param level1Cells 一级网格打包码
+     * @param sinkFactory 由任务的局部列表创建目标层级网格回调，回调把网格转换后的编码写入该列表
+     * @return 合并后的网格码集合
+     */
+    static Set<String> refineInParallel(long[] level1Cells, int targetLevel, BeiDouGridPreparedGeometry prepared,
+                                        Function<List<String>, LongConsumer> sinkFactory) {
+        Queue<List<String>> partials = new ConcurrentLinkedQueue<>();
+        List<RefineTask> tasks = new ArrayList<>(level1Cells.length);
+        for (long level1Cell : level1Cells) {
+            tasks.add(new RefineTask(level1Cell, false, targetLevel, prepared, sinkFactory, partials));
+        }
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
 
-        // 4. 精确筛选：判断几何图形是否与网格相交
-        Set<String> intersectingGrids = new HashSet<>();
-        for (String gridCode : candidateGrids) {
-            Geometry gridPolygon = createGridPolygon(gridCode);
-            if (geom.intersects(gridPolygon)) {
-                intersectingGrids.add(gridCode);
+        int size = 0;
+        for (List<String> partial : partials) {
+            size += partial.size();
+        }
+        Set<String> result = new HashSet<>(Math.max(16, (int) (size / 0.75f) + 1));
+        for (List<String> partial : partials) {
+            result.addAll(partial);
+        }
+        return result;
+    }
+
+    /**
+     * 网格在目标层级的后代数
+     */
+    private static long descendantCount(int level, int targetLevel) {
+        long count = 1;
+        for (int l = level + 1; l <= targetLevel; l++) {
+            count *= (long) BeiDouGridConstants.GRID_DIVISIONS[l][0] * BeiDouGridConstants.GRID_DIVISIONS[l][1];
+        }
+        return count;
+    }
+
+    /**
+     * 细化一个与几何图形相交（或被其包含）的网格的fork-join任务
+     */
+    private static final class RefineTask extends RecursiveAction {
+        private final long cell;
+        /**
+         * 网格是否完全位于几何图形内部，是则只枚举后代，不做几何判断
+         */
+        private final boolean contained;
+        private final int targetLevel;
+        private final BeiDouGridPreparedGeometry prepared;
+        private final Function<List<String>, LongConsumer> sinkFactory;
+        private final Queue<List<String>> partials;
+
+        private RefineTask(long cell, boolean contained, int targetLevel, BeiDouGridPreparedGeometry prepared,
+                           Function<List<String>, LongConsumer> sinkFactory, Queue<List<String>> partials) {
+            this.cell = cell;
+            this.contained = contained;
+            this.targetLevel = targetLevel;
+            this.prepared = prepared;
+            this.sinkFactory = sinkFactory;
+            this.partials = partials;
+        }
+
+        @Override
+        protected void compute() {
+            int level = BeiDouGridPackedCode.getLevel(cell);
+            if (descendantCount(level, targetLevel) <= SPLIT_THRESHOLD) {
+                List<String> local = new ArrayList<>();
+                long[][] buffers = new long[targetLevel][BeiDouGridConstants.MAX_CHILD_COUNT];
+                if (contained) {
+                    enumerateCells(cell, targetLevel, buffers, sinkFactory.apply(local));
+                } else {
+                    refineCells(cell, targetLevel, prepared, buffers, new double[4], sinkFactory.apply(local));
+                }
+                if (!local.isEmpty()) {
+                    partials.add(local);
+                }
+                return;
             }
+
+            // 子树过大：每个相交的子网格拆分为一个任务
+            long[] children = new long[BeiDouGridConstants.MAX_CHILD_COUNT];
+            int count = BeiDouGridPackedCode.children(cell, children);
+            double[] bounds = new double[4];
+            List<RefineTask> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (contained) {
+                    tasks.add(new RefineTask(children[i], true, targetLevel, prepared, sinkFactory, partials));
+                    continue;
+                }
+                BeiDouGridDecoder.decode2DBounds(children[i], bounds);
+                SpatialRelation relation = prepared.relate(bounds);
+                if (relation != SpatialRelation.DISJOINT) {
+                    tasks.add(new RefineTask(children[i], relation == SpatialRelation.CONTAINS,
+                            targetLevel, prepared, sinkFactory, partials));
+                }
+            }
+            invokeAll(tasks);
         }
+    }
 
-        return intersectingGrids;
+    /**
+     * 逐级深度优先细化的迭代器，用显式栈代替 {@link #refineCells} 的递归，以便在每个结果网格处暂停
+     */
+    private static final class CellIterator implements PrimitiveIterator.OfLong {
+        private final BeiDouGridPreparedGeometry prepared;
+        private final int targetLevel;
+        private final double[] bounds = new double[4];
+        /**
+         * 第d层栈帧：待处理的d+1级网格、已处理数量、网格总数、是否都位于几何图形内部；第0层为相交的一级网格
+         */
+        private final long[][] cells;
+        private final int[] positions;
+        private final int[] counts;
+        private final boolean[] contained;
+        private int depth;
+        private long next;
+        private boolean ready;
+
+        private CellIterator(BeiDouGridPreparedGeometry prepared, int targetLevel, long[] level1Cells) {
+            this.prepared = prepared;
+            this.targetLevel = targetLevel;
+            this.cells = new long[targetLevel][];
+            this.positions = new int[targetLevel];
+            this.counts = new int[targetLevel];
+            this.contained = new boolean[targetLevel];
+            this.cells[0] = level1Cells;
+            this.counts[0] = level1Cells.length;
+            for (int level = 1; level < targetLevel; level++) {
+                this.cells[level] = new long[BeiDouGridConstants.MAX_CHILD_COUNT];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!ready) {
+                ready = advance();
+            }
+            return ready;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            return next;
+        }
+
+        private boolean advance() {
+            while (depth >= 0) {
+                if (positions[depth] == counts[depth]) {
+                    depth--;
+                    continue;
+                }
+                long cell = cells[depth][positions[depth]++];
+                boolean inside = contained[depth];
+                if (!inside) {
+                    BeiDouGridDecoder.decode2DBounds(cell, bounds);
+                    SpatialRelation relation = prepared.relate(bounds);
+                    if (relation == SpatialRelation.DISJOINT) {
+                        continue;
+                    }
+                    inside = relation == SpatialRelation.CONTAINS;
+                }
+                if (depth + 1 == targetLevel) {
+                    next = cell;
+                    return true;
+                }
+                depth++;
+                counts[depth] = BeiDouGridPackedCode.children(cell, cells[depth]);
+                positions[depth] = 0;
+                contained[depth] = inside;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 带预算的递归细化，与 {@link #refineCells(long, int, BeiDouGridPreparedGeometry, long[][], double[], LongConsumer)}
+     * 相比多了预算检查，网格本身已判断过空间关系
+     *
+     * @param inside 网格是否完全位于几何图形内部
+     * @return 预算耗尽时返回false
+     */
+    private static boolean refineCells(long cell, int targetLevel, BeiDouGridPreparedGeometry prepared,
+                                       long[][] buffers, double[] bounds, boolean inside,
+                                       BudgetTracker tracker, LongConsumer sink) {
+        int level = BeiDouGridPackedCode.getLevel(cell);
+        if (level == targetLevel) {
+            if (!tracker.accept()) {
+                return false;
+            }
+            sink.accept(cell);
+            return true;
+        }
+        long[] children = buffers[level];
+        int count = BeiDouGridPackedCode.children(cell, children);
+        for (int i = 0; i < count; i++) {
+            if (!tracker.visit()) {
+                return false;
+            }
+            boolean childInside = inside;
+            if (!inside) {
+                BeiDouGridDecoder.decode2DBounds(children[i], bounds);
+                SpatialRelation relation = prepared.relate(bounds);
+                if (relation == SpatialRelation.DISJOINT) {
+                    continue;
+                }
+                childInside = relation == SpatialRelation.CONTAINS;
+            }
+            if (!refineCells(children[i], targetLevel, prepared, buffers, bounds, childInside, tracker, sink)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 查询预算的执行状态
+     */
+    private static final class BudgetTracker {
+        private final BeiDouGridQueryBudget budget;
+        private final long deadline;
+        private final int weight;
+        private long cells;
+        private long visited;
+        private BeiDouGridQueryResult.StopReason reason = BeiDouGridQueryResult.StopReason.COMPLETED;
+
+        private BudgetTracker(BeiDouGridQueryBudget budget, long deadline, int weight) {
+            this.budget = budget;
+            this.deadline = deadline;
+            this.weight = weight;
+        }
+
+        /**
+         * 记录一次网格访问
+         *
+         * @return 预算是否仍有余量
+         */
+        private boolean visit() {
+            if (++visited > budget.getMaxVisitedNodes()) {
+                return stop(BeiDouGridQueryResult.StopReason.MAX_VISITED_NODES);
+            }
+            if ((visited & 255) == 0) {
+                if (deadline != 0 && System.nanoTime() - deadline > 0) {
+                    return stop(BeiDouGridQueryResult.StopReason.DEADLINE);
+                }
+                if (budget.getCancellation() != null && budget.getCancellation().getAsBoolean()) {
+                    return stop(BeiDouGridQueryResult.StopReason.CANCELLED);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 记录一个结果网格
+         *
+         * @return 结果网格数加入后是否仍不超出预算
+         */
+        private boolean accept() {
+            if (cells + weight > budget.getMaxCells()) {
+                return stop(BeiDouGridQueryResult.StopReason.MAX_CELLS);
+            }
+            cells += weight;
+            return true;
+        }
+
+        private boolean stop(BeiDouGridQueryResult.StopReason reason) {
+            this.reason = reason;
+            return false;
+        }
+    }
+
+    /**
+     * 以打包码递归细化网格，到达目标层级的相交网格交给回调处理
+     * <p>每个子网格先判断与几何图形的空间关系：不相交的直接舍弃，完全被包含的直接枚举其目标层级的全部后代，
+     * 不再做任何几何判断，只有与边界相交的子网格继续细化。</p>
+     *
+     * @param buffers 各层级复用的子网格缓冲区，长度不小于目标层级
+     * @param bounds  复用的网格边界数组
+     * @param sink    目标层级相交网格的回调
+     */
+    static void refineCells(long cell, int targetLevel, BeiDouGridPreparedGeometry prepared,
+                            long[][] buffers, double[] bounds, LongConsumer sink) {
+        int level = BeiDouGridPackedCode.getLevel(cell);
+        if (level == targetLevel) {
+            sink.accept(cell);
+            return;
+        }
+        long[] children = buffers[level];
+        int count = BeiDouGridPackedCode.children(cell, children);
+        for (int i = 0; i < count; i++) {
+            BeiDouGridDecoder.decode2DBounds(children[i], bounds);
+            switch (prepared.relate(bounds)) {
+                case CONTAINS:
+                    enumerateCells(children[i], targetLevel, buffers, sink);
+                    break;
+                case INTERSECTS:
+                    refineCells(children[i], targetLevel, prepared, buffers, bounds, sink);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 统计与几何图形相交的网格在目标层级的相交后代数，与 {@link #refineCells} 的回调次数相同
+     *
+     * @param buffers 各层级复用的子网格缓冲区，长度不小于目标层级
+     * @param bounds  复用的网格边界数组
+     */
+    private static long countCells(long cell, int targetLevel, BeiDouGridPreparedGeometry prepared,
+                                   long[][] buffers, double[] bounds) {
+        int level = BeiDouGridPackedCode.getLevel(cell);
+        if (level == targetLevel) {
+            return 1;
+        }
+        long[] children = buffers[level];
+        int count = BeiDouGridPackedCode.children(cell, children);
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            BeiDouGridDecoder.decode2DBounds(children[i], bounds);
+            switch (prepared.relate(bounds)) {
+                case CONTAINS:
+                    total += descendantCount(level + 1, targetLevel);
+                    break;
+                case INTERSECTS:
+                    total += countCells(children[i], targetLevel, prepared, buffers, bounds);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return total;
     }
 
     /**
-     * 递归细化网格（使用数学计算优化）
+     * 枚举网格在目标层级的全部后代网格，不做几何判断
+     *
+     * @param buffers 各层级复用的子网格缓冲区，长度不小于目标层级
+     * @param sink    目标层级网格的回调
      */
-    private static void refineGrid(String parentGrid, Geometry geom, int targetLevel,
-                                   int currentLevel, Set<String> result) {
+    static void enumerateCells(long cell, int targetLevel, long[][] buffers, LongConsumer sink) {
+        int level = BeiDouGridPackedCode.getLevel(cell);
+        if (level == targetLevel) {
+            sink.accept(cell);
+            return;
+        }
+        long[] children = buffers[level];
+        int count = BeiDouGridPackedCode.children(cell, children);
+        for (int i = 0; i < count; i++) {
+            enumerateCells(children[i], targetLevel, buffers, sink);
+        }
+    }
+
+    /**
+     * 递归细化网格（使用预处理几何图形判断相交）
+     *
+     * @param buffers 各层级复用的子网格缓冲区，按需创建
+     * @param bounds  复用的网格边界数组
+     * @param inside  父网格是否完全位于几何图形内部，是则直接枚举全部子网格，不再做几何判断
+     */
+    private static void refineGrid(String parentGrid, BeiDouGridPreparedGeometry prepared, int targetLevel,
+                                   int currentLevel, Set<String> result, String[][] buffers, double[] bounds,
+                                   boolean inside) {
         if (currentLevel == targetLevel) {
             result.add(parentGrid);
             return;
         }
         long startTime = System.currentTimeMillis();
 
-        // 提前计算几何图形的边界框，避免重复计算
-        Envelope geomEnvelope = geom.getEnvelopeInternal();
-
         // 生成当前层级网格的所有子网格
-        Set<String> childGrids = generateChildGrids2D(parentGrid);
+        if (buffers[currentLevel] == null) {
+            buffers[currentLevel] = new String[BeiDouGridConstants.MAX_CHILD_COUNT];
+        }
+        String[] childGrids = buffers[currentLevel];
+        int childCount = generateChildGrids2D(parentGrid, childGrids);
 
         long generateTime = System.currentTimeMillis() - startTime;
 
         int intersectCount = 0;
 
-        for (String childGrid : childGrids) {
-            // 使用纯数学方法判断相交
-            if (isGridIntersectsMath(childGrid, geom, geomEnvelope)) {
+        for (int i = 0; i < childCount; i++) {
+            SpatialRelation relation = SpatialRelation.CONTAINS;
+            if (!inside) {
+                BeiDouGridDecoder.decode2DBounds(childGrids[i], bounds);
+                relation = prepared.relate(bounds);
+            }
+            if (relation != SpatialRelation.DISJOINT) {
                 intersectCount++;
-                refineGrid(childGrid, geom, targetLevel, currentLevel + 1, result);
+                refineGrid(childGrids[i], prepared, targetLevel, currentLevel + 1, result, buffers, bounds,
+                        relation == SpatialRelation.CONTAINS);
             }
         }
 
         long totalTime = System.currentTimeMillis() - startTime;
-        if (currentLevel <= 3) { // 只记录低层级的详细日志
+        if (BeiDouGridConstants.DIAGNOSTICS_ENABLED && currentLevel <= 3) { // 只记录低层级的详细日志
             log.debug("层级 {} 网格 {}: 生成 {} 子网格，{} 个相交，耗时 {}ms (生成: {}ms)",
-                    currentLevel, parentGrid, childGrids.size(), intersectCount,
+                    currentLevel, parentGrid, childCount, intersectCount,
                     totalTime, generateTime);
         }
     }
 
-    /**
-     * 生成一级网格码
-     */
-    private static String generateLevel1GridCode(int lngIdx, int latIdx) {
-        // 一级网格码格式：N + 经度索引(2位) + 纬度字母(A-V)
-        String lngPart = String.format("%02d", lngIdx + 31); // 经度索引从31开始
-        char latChar = (char) ('A' + latIdx); // 纬度字母从A开始
-
-        return "N" + lngPart + latChar;
-    }
-
     /**
      * 根据网格码创建对应的多边形几何
      *
@@ -213,7 +931,9 @@ public class BeiDouGrid2DRangeQuery {
 
         // 5. 创建多边形（闭合环）
         Polygon polygon = GEOMETRY_FACTORY.createPolygon(new Coordinate[]{sw, se, ne, nw, sw});
-        log.debug("根据{}网格码创建对应的多边形几何{}", gridCode, new GeoJsonWriter().write(polygon));
+        if (BeiDouGridConstants.DIAGNOSTICS_ENABLED) {
+            log.debug("根据{}网格码创建对应的多边形几何{}", gridCode, new GeoJsonWriter().write(polygon));
+        }
         return polygon;
     }
 
@@ -235,51 +955,60 @@ public class BeiDouGrid2DRangeQuery {
      * @see BeiDouGridConstants#GRID_SIZES_DEGREES 各级网格尺寸定义
      */
     public static Set<String> generateChildGrids2D(String parentGrid) {
-        long startTime = System.currentTimeMillis();
-        // 当前二维网格码层级
-        int currentLevel = BeiDouGridDecoder.getCodeLevel2D(parentGrid);
+        String[] buffer = new String[BeiDouGridConstants.MAX_CHILD_COUNT];
+        int count = generateChildGrids2D(parentGrid, buffer);
+        Set<String> childGrids = new HashSet<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            childGrids.add(buffer[i]);
+        }
+        return childGrids;
+    }
 
+    /**
+     * 枚举指定2维父网格的所有2维子网格，写入调用方提供的缓冲区
+     * <p>直接在父网格码之后追加下一级编码片段，不经过解码和编码；子网格按纬度行、经度列的顺序写入。</p>
+     *
+     * @param parentGrid 父网格编码（1-9级）
+     * @param buffer     输出缓冲区，长度不小于子网格数量（不超过 {@link BeiDouGridConstants#MAX_CHILD_COUNT}）
+     * @return 子网格数量
+     * @throws IllegalArgumentException 如果父网格码格式无效、层级超出1-9范围或缓冲区长度不足
+     */
+    public static int generateChildGrids2D(String parentGrid, String[] buffer) {
+        int currentLevel = BeiDouGridDecoder.getCodeLevel2D(parentGrid);
         if (currentLevel < 1 || currentLevel >= 10) {
             throw new IllegalArgumentException("只能生成1-9级网格的子网格");
         }
+        int childLevel = currentLevel + 1;
+        int[] divisions = BeiDouGridConstants.GRID_DIVISIONS[childLevel];
+        if (buffer.length < divisions[0] * divisions[1]) {
+            throw new IllegalArgumentException("子网格缓冲区长度不能小于" + divisions[0] * divisions[1]);
+        }
 
-        Set<String> childGrids = new HashSet<>();
-
-        // 解码父网格获取西南角点（注意：解码器返回的是网格的西南角点，不是中心点）
-        BeiDouGeoPoint parentSWCorner = BeiDouGridDecoder.decode2D(parentGrid);
-
-        // 获取子网格的划分数量
-        int[] divisions = BeiDouGridConstants.GRID_DIVISIONS[currentLevel + 1];
-        int lngDivisions = divisions[0];
-        int latDivisions = divisions[1];
-
-        // 获取子网格尺寸
-        BigDecimal[] childSize = BeiDouGridConstants.GRID_SIZES_DEGREES[currentLevel + 1];
-        double lngSize = childSize[0].doubleValue();
-        double latSize = childSize[1].doubleValue();
-
-        // 生成所有子网格的西南角点并计算中心点进行编码
-        for (int i = 0; i < lngDivisions; i++) {
-            for (int j = 0; j < latDivisions; j++) {
-                // 计算子网格的西南角点
-                double childSWLng = parentSWCorner.getLongitude() + i * lngSize;
-                double childSWLat = parentSWCorner.getLatitude() + j * latSize;
-
-                // 计算子网格的中心点（用于编码）
-                double childLng = childSWLng + lngSize / 2;
-                double childLat = childSWLat + latSize / 2;
-
-                String childGrid = BeiDouGridEncoder.encode2D(
-                        new BeiDouGeoPoint(childLng, childLat, 0), currentLevel + 1);
-                childGrids.add(childGrid);
-            }
+        // 由父网格码首字符及1级经度编码确定半球
+        char latChar = parentGrid.charAt(0);
+        int lngCode = Character.digit(parentGrid.charAt(1), 10) * 10 + Character.digit(parentGrid.charAt(2), 10);
+        if ((latChar != 'N' && latChar != 'S') || lngCode < 1 || lngCode > 60) {
+            throw new IllegalArgumentException("无效的网格码格式: " + parentGrid);
         }
-        long time = System.currentTimeMillis() - startTime;
-        if (time > 10) { // 只记录耗时较长的操作
-            log.debug("生成层级 {} 网格 {} 的 {} 个子网格，耗时 {}ms",
-                    currentLevel, parentGrid, childGrids.size(), time);
+        int hemisphere = BeiDouGridCommonUtils.getHemisphereIndex(latChar == 'S', lngCode <= 30);
+
+        int parentLength = BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[currentLevel];
+        char[] chars = new char[BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[childLevel]];
+        parentGrid.getChars(0, parentLength, chars, 0);
+
+        int count = 0;
+        for (int lat = 0; lat < divisions[1]; lat++) {
+            for (int lng = 0; lng < divisions[0]; lng++) {
+                if (childLevel == 3 || childLevel == 6) {
+                    chars[parentLength] = BeiDouGridConstants.ZORDER_CODE_CHARS[childLevel][hemisphere][lat][lng];
+                } else {
+                    chars[parentLength] = BeiDouGridConstants.HEX_LNG_CODE_CHARS[childLevel][hemisphere][lng];
+                    chars[parentLength + 1] = BeiDouGridConstants.HEX_LAT_CODE_CHARS[childLevel][hemisphere][lat];
+                }
+                buffer[count++] = new String(chars);
+            }
         }
-        return childGrids;
+        return count;
     }
 
     /**
@@ -329,7 +1058,7 @@ public class BeiDouGrid2DRangeQuery {
     }
 
     /**
-     * 空间关系枚举
+     * 空间关系枚举（几何图形相对于网格），参见 {@link BeiDouGridPreparedGeometry#relate(double[])}
      */
     public enum SpatialRelation {
         /** 包含 */
@@ -351,12 +1080,14 @@ public class BeiDouGrid2DRangeQuery {
      * @return 是否相交
      */
     public static boolean isGridIntersectsMath(String gridCode, Geometry geom, Envelope geomEnvelope) {
-        // 1. 网格解码并记录耗时
-        long decodeStart = System.nanoTime();
+        // 1. 网格解码（诊断模式下记录耗时）
+        long decodeStart = BeiDouGridConstants.DIAGNOSTICS_ENABLED ? System.nanoTime() : 0;
         BeiDouGeoPoint swCorner = BeiDouGridDecoder.decode2D(gridCode);
-        long decodeTime = System.nanoTime() - decodeStart;
-        if (decodeTime > 100000) { // 超过100μs的记录
-            log.debug("网格解码 {} 耗时: {}μs", gridCode, decodeTime / 1000);
+        if (BeiDouGridConstants.DIAGNOSTICS_ENABLED) {
+            long decodeTime = System.nanoTime() - decodeStart;
+            if (decodeTime > 100000) { // 超过100μs的记录
+                log.debug("网格解码 {} 耗时: {}μs", gridCode, decodeTime / 1000);
+            }
         }
 
         // 2. 获取网格级别和宽高
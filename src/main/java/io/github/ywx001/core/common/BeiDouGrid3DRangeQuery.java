@@ -4,16 +4,20 @@ import io.github.ywx001.core.constants.BeiDouGridConstants;
 import io.github.ywx001.core.decoder.BeiDouGridDecoder;
 import io.github.ywx001.core.encoder.BeiDouGridEncoder;
 import io.github.ywx001.core.model.BeiDouGeoPoint;
-import io.github.ywx001.core.utils.BeiDouGridUtils;
-import io.github.ywx001.core.utils.GisUtils;
+import io.github.ywx001.core.model.BeiDouGridQueryBudget;
+import io.github.ywx001.core.model.BeiDouGridQueryResult;
 import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.*;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 北斗三维网格范围查询工具类
@@ -48,9 +52,12 @@ public class BeiDouGrid3DRangeQuery {
         long totalTime = System.currentTimeMillis() - startTime;
         log.debug("二维基础网格筛选完成，找到 {} 个网格，总耗时 {}ms", baseGrids.size(), totalTime);
 
-        // 第二阶段：为每个基础网格生成三维编码并筛选
+        // 第二阶段：高度编码只与级别和高度范围有关，求出一次后与每个基础网格组合
+        List<String> heightCodes = findHeightCodeStrings(minHeight, maxHeight, targetLevel);
         for (String grid2D : baseGrids) {
-            generate3DGridsFor2DBase(grid2D, geom, minHeight, maxHeight, result);
+            for (String heightCode : heightCodes) {
+                result.add(combine2DAndHeight(grid2D, heightCode, targetLevel));
+            }
         }
         totalTime = System.currentTimeMillis() - startTime;
         log.debug("三维查询完成：找到 {} 个{}级三维网格，总耗时 {}ms", result.size(), targetLevel, totalTime);
@@ -61,44 +68,56 @@ public class BeiDouGrid3DRangeQuery {
 
     /**
      * 对于为线的几何图形，该方法性能优于find3DGridCodesInRange方法，首选该方法
+     * <p>沿线的每一段按 {@link BeiDouGridLineTraversal#traverse3D} 逐格遍历，不再对线加密采样，
+     * 线经过的每个网格都会输出，只擦过网格一角的也不会漏掉。坐标没有高度时按0米计算。</p>
+     *
      * @param lineString 线
      * @param targetLevel 所生成的网格等级
-     * @return 线所包含的网格点
+     * @return 线所经过的网格，按线的方向排列，相邻重复的网格只保留一个
      */
     public static List<String> find3DGridCodesWithLineString(LineString lineString, int targetLevel) {
         long startTime = System.currentTimeMillis();
+        if (lineString == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        if (targetLevel < 1 || targetLevel > 10) {
+            throw new IllegalArgumentException("目标层级必须在1-10之间");
+        }
         List<String> result = new ArrayList<>();
-        //获取被点填充好的线
-        Geometry newGeom = GisUtils.lineFillPoints(lineString, BeiDouGridConstants.GRID_SIZES_3D[targetLevel]);
-        Coordinate[] coordinates = newGeom.getCoordinates();
-        List<BeiDouGeoPoint> beiDouGeoPoints = new ArrayList<>();
-        for (Coordinate coordinate : coordinates) {
-            //计算三维网格
-            String code = BeiDouGridUtils.encode3D(new BeiDouGeoPoint(coordinate.x, coordinate.y, coordinate.z), targetLevel);
-            BeiDouGeoPoint beiDouGeoPoint = BeiDouGridDecoder.decode3D(code);
-            if (beiDouGeoPoints.size() > 1) {
-                double lastGridLng = beiDouGeoPoints.get(beiDouGeoPoints.size() - 1).getLongitude();
-                double lastGridLat = beiDouGeoPoints.get(beiDouGeoPoints.size() - 1).getLatitude();
-                double lastGridHeight = beiDouGeoPoints.get(beiDouGeoPoints.size() - 1).getHeight();
-
-                BeiDouGeoPoint lastBeiDouGeoPoint = new BeiDouGeoPoint(lastGridLng, lastGridLat, lastGridHeight);
-                //去重判断
-                if (!beiDouGeoPoint.equals(lastBeiDouGeoPoint)){
-                    beiDouGeoPoints.add(beiDouGeoPoint);
-                    result.add(code);
-                }
-            } else {
-                beiDouGeoPoints.add(beiDouGeoPoint);
-                result.add(code);
+        Coordinate[] coordinates = lineString.getCoordinates();
+        long[] last = {BeiDouGridPackedCode.INVALID, 0};
+        BeiDouGridLineTraversal.Cell3DConsumer consumer = (cell, height) -> {
+            if (cell != last[0] || height != last[1]) {
+                last[0] = cell;
+                last[1] = height;
+                result.add(BeiDouGridPackedCode.toCode3D(cell, height));
             }
+        };
+        if (coordinates.length == 1) {
+            Coordinate point = coordinates[0];
+            BeiDouGridLineTraversal.traverse3D(point.x, point.y, heightOf(point), point.x, point.y, heightOf(point),
+                    targetLevel, consumer);
+        }
+        for (int i = 0; i + 1 < coordinates.length; i++) {
+            Coordinate from = coordinates[i];
+            Coordinate to = coordinates[i + 1];
+            BeiDouGridLineTraversal.traverse3D(from.x, from.y, heightOf(from), to.x, to.y, heightOf(to),
+                    targetLevel, consumer);
         }
         long totalTime = System.currentTimeMillis() - startTime;
         log.debug("线查询完成：找到 {} 个{}级网格，总耗时 {}ms", result.size(), targetLevel, totalTime);
         return result;
     }
 
+    private static double heightOf(Coordinate coordinate) {
+        return Double.isNaN(coordinate.getZ()) ? 0 : coordinate.getZ();
+    }
+
     /**
      * 直接生成与几何图形相交的三维网格编码集合
+     * <p>查询开始时预处理几何图形一次，二维部分以打包码逐级细化，每个子网格直接与预处理几何图形做相交判断；
+     * 高度部分按高度编码规则（对数高度）由高度范围直接求出目标层级的全部高度网格。
+     * 两者相互独立，结果为二者的组合，总耗时与结果规模成正比。</p>
      *
      * @param geom 几何图形
      * @param targetLevel 目标网格级别
@@ -111,15 +130,18 @@ public class BeiDouGrid3DRangeQuery {
         long startTime = System.currentTimeMillis();
         validateParameters(geom, targetLevel, minHeight, maxHeight);
 
-        Set<String> result = new HashSet<>();
+        // 1. 预处理几何图形，并求出目标层级的全部高度网格
+        BeiDouGridPreparedGeometry prepared = new BeiDouGridPreparedGeometry(geom);
+        int[] heights = findHeightCodesInRange(minHeight, maxHeight, targetLevel);
 
-        // 1. 快速筛选一级三维网格（包含高度范围）
-        Set<String> level1Grids = findIntersectingLevel1Grids3D(geom, minHeight, maxHeight);
-
-        // 2. 对每个相交的一级网格进行递归细化
-        level1Grids.parallelStream().forEach(level1Grid ->
-                refineGrid3D(level1Grid, geom, targetLevel, 1, minHeight, maxHeight, result)
-        );
+        // 2. 快速筛选一级网格，对每个相交的一级网格并行递归细化
+        long[] level1Cells = BeiDouGrid2DRangeQuery.findIntersectingLevel1Cells(prepared);
+        Set<String> result = BeiDouGrid2DRangeQuery.refineInParallel(level1Cells, targetLevel, prepared,
+                local -> cell -> {
+                    for (int height : heights) {
+                        local.add(BeiDouGridPackedCode.toCode3D(cell, height));
+                    }
+                });
 
         long totalTime = System.currentTimeMillis() - startTime;
         log.debug("直接三维网格生成完成：找到 {} 个{}级网格，耗时 {}ms", result.size(), targetLevel, totalTime);
@@ -128,88 +150,185 @@ public class BeiDouGrid3DRangeQuery {
     }
 
     /**
-     * 快速筛选一级三维网格（包含高度范围）
+     * 统计与几何图形及高度范围相交的三维网格数量
+     * <p>二维网格数由 {@link BeiDouGrid2DRangeQuery#count2DGridCells} 算出，高度网格数由高度范围直接求出，
+     * 结果为二者之积，与 {@code generate3DGridCodesDirectly(...).size()} 相同，不生成任何网格码。</p>
+     *
+     * @param geom        几何图形
+     * @param targetLevel 目标网格级别
+     * @param minHeight   最小高度
+     * @param maxHeight   最大高度
+     * @return 相交的目标级别三维网格数
+     * @throws IllegalArgumentException 如果几何图形为空、目标级别不在 1-10 范围内或高度范围无效
      */
-    private static Set<String> findIntersectingLevel1Grids3D(Geometry geom,
-                                                             double minHeight, double maxHeight) {
-        // 1. 计算几何图形的边界范围（包括高度）
-        Envelope envelope = geom.getEnvelopeInternal();
-        double minLng = envelope.getMinX();
-        double maxLng = envelope.getMaxX();
-        double minLat = envelope.getMinY();
-        double maxLat = envelope.getMaxY();
-
-        // 2. 计算一级网格索引范围（一级网格尺寸：6°×4°×高度）
-        int minLngIdx = (int) Math.floor(minLng / 6.0);
-        int maxLngIdx = (int) Math.floor(maxLng / 6.0);
-        int minLatIdx = (int) Math.floor(minLat / 4.0);
-        int maxLatIdx = (int) Math.floor(maxLat / 4.0);
-        int minAltIdx = (int) Math.floor(minHeight / getGridHeight3D(1));
-        int maxAltIdx = (int) Math.floor(maxHeight / getGridHeight3D(1));
-
-        // 3. 生成候选一级网格码
-        Set<String> candidateGrids = new HashSet<>();
-        for (int altIdx = minAltIdx; altIdx <= maxAltIdx; altIdx++) {
-            for (int lngIdx = minLngIdx; lngIdx <= maxLngIdx; lngIdx++) {
-                for (int latIdx = minLatIdx; latIdx <= maxLatIdx; latIdx++) {
-                    // 生成一级网格的三维编码
-                    String grid3D = generateLevel1GridCode3D(lngIdx, latIdx, altIdx);
-                    candidateGrids.add(grid3D);
-                }
-            }
-        }
+    public static long count3DGridCodesInRange(Geometry geom, int targetLevel, double minHeight, double maxHeight) {
+        validateParameters(geom, targetLevel, minHeight, maxHeight);
+        long cells2D = BeiDouGrid2DRangeQuery.count2DGridCells(new BeiDouGridPreparedGeometry(geom), targetLevel);
+        return cells2D * findHeightCodesInRange(minHeight, maxHeight, targetLevel).length;
+    }
 
-        // 4. 精确筛选：判断几何图形是否与网格相交（包括高度范围）
-        Set<String> intersectingGrids = new HashSet<>();
-        for (String grid3D : candidateGrids) {
-            if (is3DGridValidDirectly(grid3D, geom, minHeight, maxHeight)) {
-                intersectingGrids.add(grid3D);
-            }
-        }
+    /**
+     * 在预算内生成与几何图形相交的三维网格编码
+     * <p>预算语义参见 {@link BeiDouGrid2DRangeQuery#find2DGridCodesInRange(BeiDouGridPreparedGeometry, int, BeiDouGridQueryBudget)}，
+     * 最大结果网格数按三维网格计算，一个二维网格及其全部高度网格要么全部加入结果，要么全部不加入。</p>
+     *
+     * @param geom        几何图形
+     * @param targetLevel 目标网格级别
+     * @param minHeight   最小高度
+     * @param maxHeight   最大高度
+     * @param budget      查询预算
+     * @return 查询结果，包含三维网格码、实际级别和停止原因
+     * @throws IllegalArgumentException 如果几何图形为空、目标级别不在 1-10 范围内、高度范围无效或预算为空
+     */
+    public static BeiDouGridQueryResult generate3DGridCodesDirectly(Geometry geom, int targetLevel,
+                                                                    double minHeight, double maxHeight,
+                                                                    BeiDouGridQueryBudget budget) {
+        validateParameters(geom, targetLevel, minHeight, maxHeight);
+        return BeiDouGrid2DRangeQuery.queryWithBudget(new BeiDouGridPreparedGeometry(geom), targetLevel, budget,
+                level -> findHeightCodesInRange(minHeight, maxHeight, level).length,
+                (level, result) -> {
+                    int[] heights = findHeightCodesInRange(minHeight, maxHeight, level);
+                    return cell -> {
+                        for (int height : heights) {
+                            result.add(BeiDouGridPackedCode.toCode3D(cell, height));
+                        }
+                    };
+                });
+    }
 
-        return intersectingGrids;
+    /**
+     * 逐个回调与几何图形相交的三维网格码（流式查询）
+     * <p>结果与 {@link #find3DGridCodesInRange(Geometry, int, double, double)} 相同：二维部分按
+     * {@link BeiDouGrid2DRangeQuery#forEach2DGridCell} 顺序细化，每确定一个二维网格就立即回调其与
+     * 按 {@link BeiDouGridConstants#GRID_SIZES_3D} 等高划分的高度网格组合的三维网格码，不保存结果集合。</p>
+     *
+     * @param geom        几何图形
+     * @param targetLevel 目标网格级别
+     * @param minHeight   最小高度
+     * @param maxHeight   最大高度
+     * @param consumer    三维网格码回调
+     * @throws IllegalArgumentException 如果几何图形为空、目标级别不在 1-10 范围内或高度范围无效
+     */
+    public static void forEach3DGridCode(Geometry geom, int targetLevel, double minHeight, double maxHeight,
+                                         Consumer<String> consumer) {
+        validateParameters(geom, targetLevel, minHeight, maxHeight);
+        List<String> heightCodes = findHeightCodeStrings(minHeight, maxHeight, targetLevel);
+        BeiDouGrid2DRangeQuery.forEach2DGridCell(new BeiDouGridPreparedGeometry(geom), targetLevel, cell -> {
+            String grid2D = BeiDouGridPackedCode.toCode2D(cell);
+            for (String heightCode : heightCodes) {
+                consumer.accept(combine2DAndHeight(grid2D, heightCode, targetLevel));
+            }
+        });
     }
 
     /**
-     * 生成一级三维网格码
+     * 以惰性顺序流返回与几何图形相交的三维网格码
+     * <p>结果与 {@link #find3DGridCodesInRange(Geometry, int, double, double)} 相同，二维网格由
+     * {@link BeiDouGrid2DRangeQuery#stream2DGridCells} 按需细化，每个二维网格展开为其全部高度网格。</p>
+     *
+     * @param geom        几何图形
+     * @param targetLevel 目标网格级别
+     * @param minHeight   最小高度
+     * @param maxHeight   最大高度
+     * @return 三维网格码流，元素互不重复
+     * @throws IllegalArgumentException 如果几何图形为空、目标级别不在 1-10 范围内或高度范围无效
      */
-    private static String generateLevel1GridCode3D(int lngIdx, int latIdx, int altIdx) {
-        // 生成二维部分
-        String grid2D = BeiDouGridEncoder.encode2D(
-                new BeiDouGeoPoint(lngIdx * 6.0 + 3.0, latIdx * 4.0 + 2.0, 0), 1);
+    public static Stream<String> stream3DGridCodes(Geometry geom, int targetLevel, double minHeight, double maxHeight) {
+        validateParameters(geom, targetLevel, minHeight, maxHeight);
+        List<String> heightCodes = findHeightCodeStrings(minHeight, maxHeight, targetLevel);
+        return BeiDouGrid2DRangeQuery.stream2DGridCells(new BeiDouGridPreparedGeometry(geom), targetLevel)
+                .mapToObj(BeiDouGridPackedCode::toCode2D)
+                .flatMap(grid2D -> heightCodes.stream()
+                        .map(heightCode -> combine2DAndHeight(grid2D, heightCode, targetLevel)));
+    }
 
-        // 生成高度部分
-        String heightCode = BeiDouGridEncoder.encode3DHeight(altIdx * getGridHeight3D(1) + getGridHeight3D(1) / 2, 1);
+    /**
+     * 逐个回调与几何图形相交的三维网格码（流式查询，直接生成方式）
+     * <p>结果与 {@link #generate3DGridCodesDirectly(Geometry, int, double, double)} 相同，高度网格按高度编码规则
+     * （对数高度）求出。二维部分按 {@link BeiDouGrid2DRangeQuery#forEach2DGridCell} 顺序细化，
+     * 每确定一个二维网格就立即回调其全部高度网格，不保存结果集合。</p>
+     *
+     * @param geom        几何图形
+     * @param targetLevel 目标网格级别
+     * @param minHeight   最小高度
+     * @param maxHeight   最大高度
+     * @param consumer    三维网格码回调
+     * @throws IllegalArgumentException 如果几何图形为空、目标级别不在 1-10 范围内或高度范围无效
+     */
+    public static void forEach3DGridCodeDirectly(Geometry geom, int targetLevel, double minHeight, double maxHeight,
+                                                 Consumer<String> consumer) {
+        validateParameters(geom, targetLevel, minHeight, maxHeight);
+        int[] heights = findHeightCodesInRange(minHeight, maxHeight, targetLevel);
+        BeiDouGrid2DRangeQuery.forEach2DGridCell(new BeiDouGridPreparedGeometry(geom), targetLevel, cell -> {
+            for (int height : heights) {
+                consumer.accept(BeiDouGridPackedCode.toCode3D(cell, height));
+            }
+        });
+    }
 
-        // 组合成完整的三维编码
-        return combine2DAndHeight(grid2D, heightCode, 1);
+    /**
+     * 以惰性顺序流返回与几何图形相交的三维网格码（直接生成方式）
+     * <p>结果与 {@link #generate3DGridCodesDirectly(Geometry, int, double, double)} 相同，二维网格由
+     * {@link BeiDouGrid2DRangeQuery#stream2DGridCells} 按需细化，每个二维网格展开为其全部高度网格。</p>
+     *
+     * @param geom        几何图形
+     * @param targetLevel 目标网格级别
+     * @param minHeight   最小高度
+     * @param maxHeight   最大高度
+     * @return 三维网格码流，元素互不重复
+     * @throws IllegalArgumentException 如果几何图形为空、目标级别不在 1-10 范围内或高度范围无效
+     */
+    public static Stream<String> stream3DGridCodesDirectly(Geometry geom, int targetLevel,
+                                                           double minHeight, double maxHeight) {
+        validateParameters(geom, targetLevel, minHeight, maxHeight);
+        int[] heights = findHeightCodesInRange(minHeight, maxHeight, targetLevel);
+        return BeiDouGrid2DRangeQuery.stream2DGridCells(new BeiDouGridPreparedGeometry(geom), targetLevel)
+                .boxed()
+                .flatMap(cell -> Arrays.stream(heights).mapToObj(height -> BeiDouGridPackedCode.toCode3D(cell, height)));
     }
 
     /**
-     * 递归细化三维网格
+     * 求出与高度范围相交的全部指定层级高度网格
+     * <p>高度编码的索引n随高度单调递增，因此按n的取值区间即可精确确定相交的高度网格，地上、地下两部分分别计算。</p>
+     *
+     * @return 高度打包值数组，参见 {@link BeiDouGridPackedCode#height}
      */
-    private static void refineGrid3D(String parentGrid, Geometry geom, int targetLevel,
-                                     int currentLevel, double minHeight, double maxHeight,
-                                     Set<String> result) {
-        if (currentLevel == targetLevel) {
-            result.add(parentGrid);
-            return;
+    static int[] findHeightCodesInRange(double minHeight, double maxHeight, int level) {
+        int minIndex = signedHeightIndex(minHeight);
+        int maxIndex = signedHeightIndex(maxHeight);
+
+        // 指定层级的高度编码只保留n的高位，低shift位被截断
+        int shift = 31;
+        for (int i = 1; i <= level; i++) {
+            shift -= BeiDouGridConstants.ELEVATION_ENCODING[i][0];
         }
 
-        // 生成当前层级网格的所有子网格
-        Set<String> childGrids = generateChildGrids3D(parentGrid);
-
-        // 普通for循环处理子网格（便于调试）
-        log.debug("生成子网格数量: " + childGrids.size());
-        int validCount = 0;
-        for (String childGrid : childGrids) {
-            if (is3DGridValidDirectly(childGrid, geom, minHeight, maxHeight)) {
-                refineGrid3D(childGrid, geom, targetLevel, currentLevel + 1,
-                        minHeight, maxHeight, result);
-                validCount++;
+        List<Integer> heights = new ArrayList<>();
+        if (minIndex < 0) {
+            // 地下部分：编码为n的绝对值
+            int from = (maxIndex < 0 ? -maxIndex : 1) >>> shift;
+            int to = -minIndex >>> shift;
+            for (int prefix = from; prefix <= to; prefix++) {
+                heights.add(BeiDouGridPackedCode.height(true, prefix << shift, level));
+            }
+        }
+        if (maxIndex >= 0) {
+            int from = Math.max(minIndex, 0) >>> shift;
+            int to = maxIndex >>> shift;
+            for (int prefix = from; prefix <= to; prefix++) {
+                heights.add(BeiDouGridPackedCode.height(false, prefix << shift, level));
             }
         }
-        log.debug("有效子网格数量: " + validCount);
+        return heights.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 计算高度对应的带符号高度索引n（地下为负）
+     */
+    private static int signedHeightIndex(double height) {
+        int packed = BeiDouGridEncoder.encode3DHeightPacked(height, 10);
+        int index = BeiDouGridPackedCode.getHeightIndex(packed);
+        return BeiDouGridPackedCode.isBelowGround(packed) ? -index : index;
     }
 
     /**
@@ -264,7 +383,9 @@ public class BeiDouGrid3DRangeQuery {
         // 计算高度方向的网格数量
         int minAltIdx = (int) Math.floor(parentMinHeight / altSize);
         int maxAltIdx = (int) Math.ceil(parentMaxHeight / altSize);
-        log.debug("高度方向网格数量: minAltIdx={}, maxAltIdx={}, 总数量={}", minAltIdx, maxAltIdx, maxAltIdx - minAltIdx + 1);
+        if (BeiDouGridConstants.DIAGNOSTICS_ENABLED) {
+            log.debug("高度方向网格数量: minAltIdx={}, maxAltIdx={}, 总数量={}", minAltIdx, maxAltIdx, maxAltIdx - minAltIdx + 1);
+        }
 
         // 生成所有子网格的中心点并编码（高度方向生成多个网格）
         for (int i = 0; i < lngDivisions; i++) {
@@ -287,41 +408,11 @@ public class BeiDouGrid3DRangeQuery {
                 }
             }
         }
-        log.debug("生成层级 {} 网格 {} 的 {} 个子网格",
-                currentLevel, parentGrid, childGrids.size());
-        return childGrids;
-    }
-
-
-    /**
-     * 直接验证三维网格有效性（优化版）
-     */
-    private static boolean is3DGridValidDirectly(String grid3D, Geometry geom,
-                                                 double gridMinAlt, double gridMaxAlt) {
-        try {
-            // 解码获取网格边界
-            BeiDouGeoPoint swPoint = BeiDouGridDecoder.decode3D(grid3D);
-
-            // 获取网格的尺寸（经度、纬度、高度）
-            double gridHeight = getGridHeight3D(getGridLevel3D(grid3D));
-
-            // 计算网格的东北角点（右上角点）
-            double neAlt = swPoint.getHeight() + gridHeight;
-
-            // 高度范围验证
-            if (gridMaxAlt < swPoint.getHeight() || gridMinAlt > neAlt) {
-                return false;
-            }
-
-            // 二维空间验证（使用BeiDouGridRangeQuery）
-            String grid2D = extract2DCode(grid3D, getGridLevel3D(grid3D));
-            Set<String> intersectingGrids = BeiDouGrid2DRangeQuery.findGridCodesInRange(geom, getGridLevel(grid2D));
-            return intersectingGrids.contains(grid2D);
-
-        } catch (Exception e) {
-            log.debug("三维网格验证失败: " + grid3D + " " + e.getMessage());
-            return false;
+        if (BeiDouGridConstants.DIAGNOSTICS_ENABLED) {
+            log.debug("生成层级 {} 网格 {} 的 {} 个子网格",
+                    currentLevel, parentGrid, childGrids.size());
         }
+        return childGrids;
     }
 
 
@@ -372,13 +463,13 @@ public class BeiDouGrid3DRangeQuery {
     }
 
     /**
-     * 为二维基础网格生成三维编码并筛选（带高度参数，以高度字段为范围）
+     * 按等高划分求出高度范围内的指定层级高度编码，与二维网格无关
+     * <p>高度网格按 {@link BeiDouGridConstants#GRID_SIZES_3D} 等高划分，取每个网格中点的高度编码，
+     * 相邻网格编码相同时只保留一个。</p>
+     *
+     * @return 互不相同的高度编码，按高度递增排列
      */
-    private static void generate3DGridsFor2DBase(String grid2D, Geometry geom,
-                                                 double minHeight, double maxHeight,
-                                                 Set<String> result) {
-        int level = getGridLevel(grid2D);
-
+    private static List<String> findHeightCodeStrings(double minHeight, double maxHeight, int level) {
         // 计算网格的高度尺寸
         double gridHeight = getGridHeight3D(level);
 
@@ -387,22 +478,12 @@ public class BeiDouGrid3DRangeQuery {
         int endIndex = (int) Math.ceil(maxHeight / gridHeight);
 
         // 为每个高度索引生成编码
+        Set<String> heightCodes = new LinkedHashSet<>();
         for (int i = startIndex; i <= endIndex; i++) {
             double gridMinAlt = i * gridHeight;
-            double gridMaxAlt = gridMinAlt + gridHeight;
-
-            // 生成高度编码
-            String heightCode = BeiDouGridEncoder.encode3DHeight(gridMinAlt + gridHeight / 2, level);
-
-            // 组合成完整的三维编码
-            String grid3D = combine2DAndHeight(grid2D, heightCode, level);
-
-            // 检查是否与几何图形相交
-//            if (is3DGridValid(grid3D, geom, gridMinAlt, gridMaxAlt)) {
-//                result.add(grid3D);
-//            }
-            result.add(grid3D);
+            heightCodes.add(BeiDouGridEncoder.encode3DHeight(gridMinAlt + gridHeight / 2, level));
         }
+        return new ArrayList<>(heightCodes);
     }
 
     /**
@@ -464,67 +545,6 @@ public class BeiDouGrid3DRangeQuery {
         return result.toString();
     }
 
-    /**
-     * 判断三维网格是否有效（2.5D方案：二维空间关系 + 高度范围判断），待优化
-     */
-    private static boolean is3DGridValid(String grid3D, Geometry geom, double queryMinAlt, double queryMaxAlt) {
-        try {
-            // 解码获取网格的三维边界信息
-            BeiDouGeoPoint swPoint = BeiDouGridDecoder.decode3D(grid3D);
-            int level = getGridLevel3D(grid3D);
-
-            // 获取网格的尺寸
-            double gridHeightSize = getGridHeight3D(level);
-
-            // 计算网格的高度范围
-            double gridMinAlt = swPoint.getHeight();
-            double gridMaxAlt = gridMinAlt + gridHeightSize;
-
-            // 1. 高度范围相交判断（精确匹配）
-            boolean heightIntersects = (gridMaxAlt > queryMinAlt) && (gridMinAlt < queryMaxAlt);
-            if (!heightIntersects) {
-                return false;
-            }
-
-            // 2. 二维空间关系判断（复用现有优化逻辑）
-            String grid2D = extract2DCode(grid3D, level);
-            Set<String> intersectingGrids = BeiDouGrid2DRangeQuery.findGridCodesInRange(geom, getGridLevel(grid2D));
-
-            // 3. 如果二维相交且高度相交，则三维相交（精确方案）
-            return intersectingGrids.contains(grid2D);
-
-        } catch (Exception e) {
-            log.debug("三维网格验证失败: " + grid3D + " " + e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * 从三维编码中提取二维编码部分
-     */
-    private static String extract2DCode(String grid3D, int level) {
-        StringBuilder code2D = new StringBuilder();
-        code2D.append(grid3D.charAt(0)); // 纬度方向
-
-        int index = 2; // 跳过纬度方向和高度方向
-
-        for (int i = 1; i <= level; i++) {
-            int level2DLength = BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i] -
-                    BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i - 1];
-            code2D.append(grid3D, index, index + level2DLength);
-            index += level2DLength;
-
-            // 跳过高度编码部分
-            if (i == 1) {
-                index += 2;
-            } else {
-                index += 1;
-            }
-        }
-
-        return code2D.toString();
-    }
-
     /**
      * 获取三维网格的高度尺寸
      */
@@ -535,37 +555,6 @@ public class BeiDouGrid3DRangeQuery {
         return BeiDouGridConstants.GRID_SIZES_3D[level];
     }
 
-    /**
-     * 获取二维网格码的层级
-     */
-    private static int getGridLevel(String grid2D) {
-        int length = grid2D.length();
-        for (int i = 1; i <= 10; i++) {
-            if (length == BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i]) {
-                return i;
-            }
-        }
-        throw new IllegalArgumentException("无效的网格码格式: " + grid2D);
-    }
-
-    /**
-     * 获取三维网格码的层级
-     */
-    private static int getGridLevel3D(String grid3D) {
-        int length = grid3D.length();
-        for (int i = 1; i <= 10; i++) {
-            int expectedLength = 2; // 方向位
-            for (int j = 1; j <= i; j++) {
-                expectedLength += (BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[j] -
-                        BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[j - 1]);
-                expectedLength += (j == 1) ? 2 : 1;
-            }
-            if (expectedLength == length) {
-                return i;
-            }
-        }
-        throw new IllegalArgumentException("无效的三维网格码格式: " + grid3D);
-    }
     /**
      * 创建网格边界几何图形
      */
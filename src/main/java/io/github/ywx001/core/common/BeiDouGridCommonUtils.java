@@ -42,6 +42,17 @@ public class BeiDouGridCommonUtils {
         return latDir + lngDir;
     }
 
+    /**
+     * 获取半球序号，用于索引 {@link io.github.ywx001.core.constants.BeiDouGridConstants} 中的编码字符表
+     *
+     * @param south 是否为南纬
+     * @param west  是否为西经
+     * @return 半球序号：NE=0、NW=1、SE=2、SW=3
+     */
+    public static int getHemisphereIndex(boolean south, boolean west) {
+        return (south ? 2 : 0) + (west ? 1 : 0);
+    }
+
     /**
      * 从网格码中提取半球信息
      *
@@ -0,0 +1,198 @@
+package io.github.ywx001.core.common;
+
+import io.github.ywx001.core.constants.BeiDouGridConstants;
+import io.github.ywx001.core.encoder.BeiDouGridEncoder;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * 北斗网格线段遍历工具类
+ *
+ * <p>按Amanatides–Woo网格遍历算法沿线段逐格前进：由起点所在网格出发，
+ * 每一步比较线段到达下一条经线、纬线（三维时还有高度面）的参数t，向最先到达的方向移动一格，
+ * 同时到达时各方向同时移动。每个经过的网格恰好输出一次，不对线段做加密采样，
+ * 只擦过网格一角的线段也不会漏掉该网格。</p>
+ *
+ * <p>网格按左闭右开划分，线段上每一点恰属于一个网格，输出的就是这些网格按线段方向的顺序。
+ * 经纬度网格线取全球格网（参见 {@link BeiDouGridPackedCode#fromLattice}）的精确边界，
+ * 高度网格面按高度编码公式的逆公式求出，高度方向网格不等高。</p>
+ */
+public class BeiDouGridLineTraversal {
+
+    /**
+     * 三维网格回调
+     */
+    @FunctionalInterface
+    public interface Cell3DConsumer {
+        /**
+         * 接收一个三维网格
+         *
+         * @param cell   经纬部分打包码
+         * @param height 高度打包值，参见 {@link BeiDouGridPackedCode#height}
+         */
+        void accept(long cell, int height);
+    }
+
+    /**
+     * 按顺序输出二维线段经过的网格
+     *
+     * @param lng0     起点经度
+     * @param lat0     起点纬度
+     * @param lng1     终点经度
+     * @param lat1     终点纬度
+     * @param level    网格级别，范围1-10
+     * @param consumer 网格打包码回调
+     * @throws IllegalArgumentException 如果经纬度或级别越界
+     */
+    public static void traverse2D(double lng0, double lat0, double lng1, double lat1, int level,
+                                  LongConsumer consumer) {
+        long start = BeiDouGridEncoder.encode2DPacked(lng0, lat0, level);
+        long end = BeiDouGridEncoder.encode2DPacked(lng1, lat1, level);
+        Axis lng = new Axis(lng0, lng1, BeiDouGridPackedCode.getLatticeLngIndex(start),
+                BeiDouGridPackedCode.getLatticeLngIndex(end), lattice(BeiDouGridConstants.GRID_SIZES_UNITS[level][0]));
+        Axis lat = new Axis(lat0, lat1, BeiDouGridPackedCode.getLatticeLatIndex(start),
+                BeiDouGridPackedCode.getLatticeLatIndex(end), lattice(BeiDouGridConstants.GRID_SIZES_UNITS[level][1]));
+
+        consumer.accept(start);
+        while (!lng.done() || !lat.done()) {
+            double t = Math.min(lng.next, lat.next);
+            lng.stepIfAt(t);
+            lat.stepIfAt(t);
+            consumer.accept(BeiDouGridPackedCode.fromLattice(level, lng.index, lat.index));
+        }
+    }
+
+    /**
+     * 按顺序输出三维线段经过的网格
+     *
+     * @param lng0     起点经度
+     * @param lat0     起点纬度
+     * @param h0       起点高度（米）
+     * @param lng1     终点经度
+     * @param lat1     终点纬度
+     * @param h1       终点高度（米）
+     * @param level    网格级别，范围1-10
+     * @param consumer 三维网格回调
+     * @throws IllegalArgumentException 如果经纬度或级别越界
+     */
+    public static void traverse3D(double lng0, double lat0, double h0, double lng1, double lat1, double h1,
+                                  int level, Cell3DConsumer consumer) {
+        long start = BeiDouGridEncoder.encode3DPlanePacked(lng0, lat0, level);
+        long end = BeiDouGridEncoder.encode3DPlanePacked(lng1, lat1, level);
+        int shift = heightShift(level);
+        Axis lng = new Axis(lng0, lng1, BeiDouGridPackedCode.getLatticeLngIndex(start),
+                BeiDouGridPackedCode.getLatticeLngIndex(end), lattice(BeiDouGridConstants.GRID_SIZES_UNITS[level][0]));
+        Axis lat = new Axis(lat0, lat1, BeiDouGridPackedCode.getLatticeLatIndex(start),
+                BeiDouGridPackedCode.getLatticeLatIndex(end), lattice(BeiDouGridConstants.GRID_SIZES_UNITS[level][1]));
+        Axis height = new Axis(h0, h1, heightOrdinal(BeiDouGridEncoder.encode3DHeightPacked(h0, level), shift),
+                heightOrdinal(BeiDouGridEncoder.encode3DHeightPacked(h1, level), shift),
+                ordinal -> heightBoundary(ordinal, shift));
+
+        consumer.accept(start, heightPacked(height.index, shift, level));
+        while (!lng.done() || !lat.done() || !height.done()) {
+            double t = Math.min(lng.next, Math.min(lat.next, height.next));
+            lng.stepIfAt(t);
+            lat.stepIfAt(t);
+            height.stepIfAt(t);
+            consumer.accept(BeiDouGridPackedCode.fromLattice(level, lng.index, lat.index),
+                    heightPacked(height.index, shift, level));
+        }
+    }
+
+    /**
+     * 全球格网第i条网格线的经纬度，参见 {@link BeiDouGridPackedCode#latticeLine}
+     */
+    private static LongToDoubleFunction lattice(long units) {
+        return line -> BeiDouGridPackedCode.latticeLine(line, units);
+    }
+
+    /**
+     * 指定层级高度编码截断的低位数
+     */
+    private static int heightShift(int level) {
+        int shift = 31;
+        for (int i = 1; i <= level; i++) {
+            shift -= BeiDouGridConstants.ELEVATION_ENCODING[i][0];
+        }
+        return shift;
+    }
+
+    /**
+     * 高度打包值转为随高度单调递增的带符号高度网格序号：地上为截断后的索引，地下为负数
+     */
+    private static long heightOrdinal(int height, int shift) {
+        long prefix = BeiDouGridPackedCode.getHeightIndex(height) >>> shift;
+        return BeiDouGridPackedCode.isBelowGround(height) ? -prefix - 1 : prefix;
+    }
+
+    private static int heightPacked(long ordinal, int shift, int level) {
+        return ordinal >= 0
+                ? BeiDouGridPackedCode.height(false, (int) (ordinal << shift), level)
+                : BeiDouGridPackedCode.height(true, (int) ((-ordinal - 1) << shift), level);
+    }
+
+    /**
+     * 高度网格序号的下边界高度
+     * <p>高度索引n = floor(g(h))，地上网格p覆盖g ∈ [p·2^s, (p+1)·2^s)；
+     * 地下网格以|n|截断，网格p覆盖g ∈ [1-(p+1)·2^s, 1-p·2^s)，其中p=0的上边界为0。
+     * 公式中的θ0/θ（1°与1/2048″之比）即 {@link BeiDouGridConstants#UNITS_PER_DEGREE}。</p>
+     */
+    private static double heightBoundary(long ordinal, int shift) {
+        double g = ordinal >= 0 ? (double) (ordinal << shift) : 1 - (double) ((-ordinal) << shift);
+        return Math.pow(1 + Math.PI / 180, g / BeiDouGridConstants.UNITS_PER_DEGREE) * BeiDouGridConstants.EARTH_RADIUS
+                - BeiDouGridConstants.EARTH_RADIUS;
+    }
+
+    /**
+     * 单个坐标轴上的遍历状态
+     */
+    private static final class Axis {
+        private final double from;
+        private final double delta;
+        private final long end;
+        private final int step;
+        /**
+         * 第i条网格线（即网格i的下边界）的坐标
+         */
+        private final LongToDoubleFunction boundary;
+        private long index;
+        /**
+         * 到达下一条网格线的参数t，已到达终点网格时为正无穷
+         */
+        private double next;
+
+        private Axis(double from, double to, long index, long end, LongToDoubleFunction boundary) {
+            this.from = from;
+            this.delta = to - from;
+            this.index = index;
+            this.end = end;
+            this.step = Long.compare(end, index);
+            this.boundary = boundary;
+            this.next = nextCrossing();
+        }
+
+        private boolean done() {
+            return index == end;
+        }
+
+        /**
+         * 参数t恰为本轴下一条网格线时移动一格
+         */
+        private void stepIfAt(double t) {
+            if (next == t && !done()) {
+                index += step;
+                next = nextCrossing();
+            }
+        }
+
+        private double nextCrossing() {
+            if (index == end) {
+                return Double.POSITIVE_INFINITY;
+            }
+            // 浮点误差使起终点网格与网格线不一致时（含NaN）立即移动，保证必然到达终点网格
+            double t = (boundary.applyAsDouble(step > 0 ? index + 1 : index) - from) / delta;
+            return t > 0 ? t : 0;
+        }
+    }
+}
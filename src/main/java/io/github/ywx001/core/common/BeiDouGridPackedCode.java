@@ -0,0 +1,631 @@
+package io.github.ywx001.core.common;
+
+import io.github.ywx001.core.constants.BeiDouGridConstants;
+import io.github.ywx001.core.decoder.BeiDouGridDecoder;
+
+/**
+ * 北斗网格码的紧凑整型表示（打包码）
+ *
+ * <p>二维网格码打包为一个 {@code long}，三维网格码打包为 {@code long}（经纬部分）+ {@code int}（高度部分），
+ * 可直接存入基本类型数组，编码、解码、父子网格运算均无需创建字符串。</p>
+ *
+ * <p><b>二维打包码位布局（从高位到低位）：</b></p>
+ * <pre>
+ * 位63      纬度方向（1表示南纬S）
+ * 位62      经度方向（1表示西经W）
+ * 位61-57   1级经度列号（0-29，自本初子午线起算）
+ * 位56-52   1级纬度行号（0-21，自赤道起算）
+ * 位51-48   2级经度列号（0-11）    位47-45 2级纬度行号（0-7）
+ * 位44      3级经度列号（0-1）
+ * 位43-39   3、4级纬度行号合并字段（3级行号×10 + 4级行号，0-29）
+ * 位38-35   4级经度列号（0-14）
+ * 位34-31   5级经度列号（0-14）    位30-27 5级纬度行号（0-14）
+ * 位26      6级经度列号（0-1）     位25    6级纬度行号（0-1）
+ * 位24-1    7-10级经纬度列/行号，每级各3位
+ * </pre>
+ * <p>各级行列号之后紧跟一个哨兵位1，其余低位补0，由最低位1的位置确定层级，因此值0不是合法打包码。
+ * 3级纬度行号（0-2）与4级纬度行号（0-9）合并为一个5位字段，以便10级网格码连同哨兵位恰好放入64位。</p>
+ *
+ * <p>行列号均按"距本初子午线/赤道的绝对距离"递增，与字符串编码中按半球翻转后的字符无关；
+ * 与字符串之间的互转遵循 {@link io.github.ywx001.core.encoder.BeiDouGridEncoder} 的各半球编码规则，转换无损。</p>
+ *
+ * <p>三维高度部分为 {@code int}：位31为高度方向（1表示地下），低31位为按层级截断后的高度索引n。</p>
+ */
+public class BeiDouGridPackedCode {
+
+    /**
+     * 非法打包码（不含哨兵位）
+     */
+    public static final long INVALID = 0L;
+
+    private static final int LAT_DIR_BIT = 63;
+    private static final int LNG_DIR_BIT = 62;
+
+    /**
+     * 各级经度列号字段的起始位和位数，下标为层级
+     */
+    private static final int[] LNG_SHIFT = {0, 57, 48, 44, 35, 31, 26, 22, 16, 10, 4};
+    private static final int[] LNG_BITS = {0, 5, 4, 1, 4, 4, 1, 3, 3, 3, 3};
+
+    /**
+     * 各级纬度行号字段的起始位和位数，3、4级共用合并字段
+     */
+    private static final int[] LAT_SHIFT = {0, 52, 45, 39, 39, 27, 25, 19, 13, 7, 1};
+    private static final int[] LAT_BITS = {0, 5, 3, 5, 5, 4, 1, 3, 3, 3, 3};
+
+    /**
+     * 3、4级合并纬度字段中3级行号的权重（即4级纬度划分数）
+     */
+    private static final int LEVEL4_LAT_DIVISIONS = BeiDouGridConstants.GRID_DIVISIONS[4][1];
+
+    /**
+     * 各级哨兵位位置
+     */
+    private static final int[] SENTINEL_BIT = {0, 51, 44, 38, 34, 26, 24, 18, 12, 6, 0};
+
+    /**
+     * 最低位1的位置到层级的映射，-1表示非法
+     */
+    private static final int[] LEVEL_OF_SENTINEL = new int[64];
+
+    /**
+     * 1级经度列号上限（每个半球30列）
+     */
+    private static final int LEVEL1_LNG_COLUMNS = BeiDouGridConstants.GRID_DIVISIONS[1][0] / 2;
+
+    /**
+     * 相邻网格的行列号偏移[经度, 纬度]：北、东、南、西、东北、东南、西南、西北
+     */
+    private static final int[][] NEIGHBOR_OFFSETS = {
+            {0, 1}, {1, 0}, {0, -1}, {-1, 0}, {1, 1}, {1, -1}, {-1, -1}, {-1, 1}
+    };
+
+    /**
+     * 高度索引截断到各级时保留的高位数（累计位数）
+     */
+    private static final int[] HEIGHT_PREFIX_BITS = new int[11];
+
+    private static final int HEIGHT_SIGN_MASK = 0x80000000;
+    private static final int HEIGHT_INDEX_BITS = 31;
+
+    static {
+        java.util.Arrays.fill(LEVEL_OF_SENTINEL, -1);
+        for (int level = 1; level <= 10; level++) {
+            LEVEL_OF_SENTINEL[SENTINEL_BIT[level]] = level;
+            HEIGHT_PREFIX_BITS[level] = HEIGHT_PREFIX_BITS[level - 1] + BeiDouGridConstants.ELEVATION_ENCODING[level][0];
+        }
+    }
+
+    /**
+     * 获取打包码的层级
+     *
+     * @param code 二维打包码
+     * @return 层级（1-10）
+     * @throws IllegalArgumentException 如果打包码无效
+     */
+    public static int getLevel(long code) {
+        int level = code == INVALID ? -1 : LEVEL_OF_SENTINEL[Long.numberOfTrailingZeros(code)];
+        if (level < 0) {
+            throw new IllegalArgumentException("无效的打包网格码: " + Long.toHexString(code));
+        }
+        return level;
+    }
+
+    /**
+     * 是否位于南半球
+     */
+    public static boolean isSouth(long code) {
+        return code < 0;
+    }
+
+    /**
+     * 是否位于西半球
+     */
+    public static boolean isWest(long code) {
+        return ((code >>> LNG_DIR_BIT) & 1L) != 0;
+    }
+
+    /**
+     * 获取指定层级的经度列号（自本初子午线起算）
+     *
+     * @param code  二维打包码
+     * @param level 层级，不能大于打包码自身层级
+     * @return 该层级在父网格内的经度列号
+     */
+    public static int getLngIndex(long code, int level) {
+        return (int) ((code >>> LNG_SHIFT[level]) & ((1L << LNG_BITS[level]) - 1));
+    }
+
+    /**
+     * 获取指定层级的纬度行号（自赤道起算）
+     *
+     * @param code  二维打包码
+     * @param level 层级，不能大于打包码自身层级
+     * @return 该层级在父网格内的纬度行号
+     */
+    public static int getLatIndex(long code, int level) {
+        int field = (int) ((code >>> LAT_SHIFT[level]) & ((1L << LAT_BITS[level]) - 1));
+        if (level == 3) {
+            return field / LEVEL4_LAT_DIVISIONS;
+        }
+        if (level == 4) {
+            return field % LEVEL4_LAT_DIVISIONS;
+        }
+        return field;
+    }
+
+    /**
+     * 构造1级打包码
+     *
+     * @param south    是否南半球
+     * @param west     是否西半球
+     * @param lngIndex 1级经度列号（0-29，自本初子午线起算）
+     * @param latIndex 1级纬度行号（0-21，自赤道起算）
+     * @return 1级二维打包码
+     */
+    public static long level1(boolean south, boolean west, int lngIndex, int latIndex) {
+        if (lngIndex < 0 || lngIndex >= LEVEL1_LNG_COLUMNS
+                || latIndex < 0 || latIndex >= BeiDouGridConstants.GRID_DIVISIONS[1][1]) {
+            throw new IllegalArgumentException("1级网格行列号越界: " + lngIndex + "," + latIndex);
+        }
+        long code = ((long) lngIndex << LNG_SHIFT[1]) | ((long) latIndex << LAT_SHIFT[1]) | (1L << SENTINEL_BIT[1]);
+        if (south) {
+            code |= 1L << LAT_DIR_BIT;
+        }
+        if (west) {
+            code |= 1L << LNG_DIR_BIT;
+        }
+        return code;
+    }
+
+    /**
+     * 指定层级每个半球的全球格网经度列数
+     */
+    public static long latticeColumns(int level) {
+        long columns = LEVEL1_LNG_COLUMNS;
+        for (int i = 2; i <= level; i++) {
+            columns *= BeiDouGridConstants.GRID_DIVISIONS[i][0];
+        }
+        return columns;
+    }
+
+    /**
+     * 指定层级每个半球的全球格网纬度行数
+     */
+    public static long latticeRows(int level) {
+        long rows = BeiDouGridConstants.GRID_DIVISIONS[1][1];
+        for (int i = 2; i <= level; i++) {
+            rows *= BeiDouGridConstants.GRID_DIVISIONS[i][1];
+        }
+        return rows;
+    }
+
+    /**
+     * 全球格网第index条网格线（即行列号为index的网格的下边界）的经度或纬度
+     * <p>计算方式与 {@code BeiDouGridDecoder.decode2DBounds} 完全一致，保证得到的边界值与解码结果逐位相同。</p>
+     *
+     * @param index 带符号网格线序号
+     * @param units 该方向的网格边长，参见 {@link BeiDouGridConstants#GRID_SIZES_UNITS}
+     * @return 网格线的经度或纬度
+     */
+    public static double latticeLine(long index, long units) {
+        return index * units / BeiDouGridConstants.UNITS_PER_DEGREE;
+    }
+
+    /**
+     * 由全球格网中的带符号行列号构造打包码
+     * <p>同一层级的网格在全球构成规则格网：经度列号自本初子午线向东为0、1、2…，向西为-1、-2…；
+     * 纬度行号自赤道向北为0、1、2…，向南为-1、-2…。列号c的网格经度范围为[c×边长, (c+1)×边长]。</p>
+     *
+     * @param level    层级（1-10）
+     * @param lngIndex 带符号经度列号
+     * @param latIndex 带符号纬度行号
+     * @return 二维打包码
+     */
+    public static long fromLattice(int level, long lngIndex, long latIndex) {
+        long columns = latticeColumns(level);
+        long rows = latticeRows(level);
+        if (lngIndex < -columns || lngIndex >= columns || latIndex < -rows || latIndex >= rows) {
+            throw new IllegalArgumentException(level + "级全球格网行列号越界: " + lngIndex + "," + latIndex);
+        }
+        boolean west = lngIndex < 0;
+        boolean south = latIndex < 0;
+        long lng = west ? -lngIndex - 1 : lngIndex;
+        long lat = south ? -latIndex - 1 : latIndex;
+
+        // 自高层级向低层级逐级分解出各级行列号
+        int[] lngIndices = new int[level + 1];
+        int[] latIndices = new int[level + 1];
+        for (int i = level; i >= 2; i--) {
+            int[] divisions = BeiDouGridConstants.GRID_DIVISIONS[i];
+            lngIndices[i] = (int) (lng % divisions[0]);
+            latIndices[i] = (int) (lat % divisions[1]);
+            lng /= divisions[0];
+            lat /= divisions[1];
+        }
+        long code = level1(south, west, (int) lng, (int) lat);
+        for (int i = 2; i <= level; i++) {
+            code = child(code, lngIndices[i], latIndices[i]);
+        }
+        return code;
+    }
+
+    /**
+     * 获取打包码在其所在层级全球格网中的带符号经度列号，参见 {@link #fromLattice}
+     */
+    public static long getLatticeLngIndex(long code) {
+        int level = getLevel(code);
+        long lng = 0;
+        for (int i = 1; i <= level; i++) {
+            lng = lng * (i == 1 ? 1 : BeiDouGridConstants.GRID_DIVISIONS[i][0]) + getLngIndex(code, i);
+        }
+        return isWest(code) ? -lng - 1 : lng;
+    }
+
+    /**
+     * 获取打包码在其所在层级全球格网中的带符号纬度行号，参见 {@link #fromLattice}
+     */
+    public static long getLatticeLatIndex(long code) {
+        int level = getLevel(code);
+        long lat = 0;
+        for (int i = 1; i <= level; i++) {
+            lat = lat * (i == 1 ? 1 : BeiDouGridConstants.GRID_DIVISIONS[i][1]) + getLatIndex(code, i);
+        }
+        return isSouth(code) ? -lat - 1 : lat;
+    }
+
+    /**
+     * 获取同级相邻网格的打包码
+     * <p>在全球格网上对带符号行列号做加减，进位、借位自动跨越父网格、赤道和本初子午线；
+     * 经度方向在180°经线处首尾相接，纬度方向超出格网南北边界时没有相邻网格。</p>
+     *
+     * @param code 二维打包码
+     * @param dLng 经度方向偏移的网格数，向东为正
+     * @param dLat 纬度方向偏移的网格数，向北为正
+     * @return 相邻网格打包码，纬度越界时返回 {@link #INVALID}
+     */
+    public static long neighbor(long code, long dLng, long dLat) {
+        int level = getLevel(code);
+        long columns = latticeColumns(level);
+        long lat = getLatticeLatIndex(code) + dLat;
+        if (lat < -latticeRows(level) || lat >= latticeRows(level)) {
+            return INVALID;
+        }
+        long lng = Math.floorMod(getLatticeLngIndex(code) + dLng + columns, 2 * columns) - columns;
+        return fromLattice(level, lng, lat);
+    }
+
+    /**
+     * 枚举同级相邻网格的打包码
+     * <p>依次为北、东、南、西四个共边网格，包含共角网格时再依次为东北、东南、西南、西北；
+     * 纬度越界的相邻网格跳过。</p>
+     *
+     * @param code           二维打包码
+     * @param includeCorners 是否包含共角网格
+     * @param buffer         输出缓冲区，长度不小于8
+     * @return 相邻网格数量
+     */
+    public static int neighbors(long code, boolean includeCorners, long[] buffer) {
+        int count = 0;
+        int directions = includeCorners ? NEIGHBOR_OFFSETS.length : 4;
+        for (int i = 0; i < directions; i++) {
+            long neighbor = neighbor(code, NEIGHBOR_OFFSETS[i][0], NEIGHBOR_OFFSETS[i][1]);
+            if (neighbor != INVALID) {
+                buffer[count++] = neighbor;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获取下一级子网格的打包码
+     *
+     * @param code     父网格打包码（1-9级）
+     * @param lngIndex 子网格在父网格内的经度列号
+     * @param latIndex 子网格在父网格内的纬度行号
+     * @return 子网格打包码
+     */
+    public static long child(long code, int lngIndex, int latIndex) {
+        int level = getLevel(code);
+        if (level >= 10) {
+            throw new IllegalArgumentException("10级网格没有子网格");
+        }
+        int childLevel = level + 1;
+        int[] divisions = BeiDouGridConstants.GRID_DIVISIONS[childLevel];
+        if (lngIndex < 0 || lngIndex >= divisions[0] || latIndex < 0 || latIndex >= divisions[1]) {
+            throw new IllegalArgumentException(childLevel + "级网格行列号越界: " + lngIndex + "," + latIndex);
+        }
+        // 各字段互不重叠，使用加法以便4级纬度行号累加到3、4级合并字段中
+        long latField = childLevel == 3 ? (long) latIndex * LEVEL4_LAT_DIVISIONS : latIndex;
+        return (code & ~(1L << SENTINEL_BIT[level]))
+                + ((long) lngIndex << LNG_SHIFT[childLevel])
+                + (latField << LAT_SHIFT[childLevel])
+                + (1L << SENTINEL_BIT[childLevel]);
+    }
+
+    /**
+     * 枚举下一级全部子网格的打包码，按纬度行、经度列的顺序写入缓冲区
+     *
+     * @param code   父网格打包码（1-9级）
+     * @param buffer 输出缓冲区，长度不小于子网格数量（不超过 {@link BeiDouGridConstants#MAX_CHILD_COUNT}）
+     * @return 子网格数量
+     */
+    public static int children(long code, long[] buffer) {
+        int level = getLevel(code);
+        if (level >= 10) {
+            throw new IllegalArgumentException("10级网格没有子网格");
+        }
+        int[] divisions = BeiDouGridConstants.GRID_DIVISIONS[level + 1];
+        if (buffer.length < divisions[0] * divisions[1]) {
+            throw new IllegalArgumentException("子网格缓冲区长度不能小于" + divisions[0] * divisions[1]);
+        }
+        int count = 0;
+        for (int lat = 0; lat < divisions[1]; lat++) {
+            for (int lng = 0; lng < divisions[0]; lng++) {
+                buffer[count++] = child(code, lng, lat);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获取上一级父网格的打包码
+     *
+     * @param code 二维打包码（2-10级）
+     * @return 父网格打包码
+     */
+    public static long parent(long code) {
+        return parent(code, getLevel(code) - 1);
+    }
+
+    /**
+     * 获取指定层级的祖先网格打包码
+     *
+     * @param code  二维打包码
+     * @param level 祖先层级（1至打包码自身层级）
+     * @return 祖先网格打包码
+     */
+    public static long parent(long code, int level) {
+        int current = getLevel(code);
+        if (level < 1 || level > current) {
+            throw new IllegalArgumentException("父网格层级必须在1-" + current + "之间: " + level);
+        }
+        if (level == current) {
+            return code;
+        }
+        int sentinel = SENTINEL_BIT[level];
+        long result = (code & (-1L << (sentinel + 1))) | (1L << sentinel);
+        if (level == 3) {
+            // 清除合并字段中的4级纬度行号
+            result -= (long) getLatIndex(code, 4) << LAT_SHIFT[4];
+        }
+        return result;
+    }
+
+    /**
+     * 二维网格码字符串转打包码
+     *
+     * @param code 北斗二维网格位置码
+     * @return 二维打包码
+     * @throws IllegalArgumentException 如果网格码格式无效
+     */
+    public static long fromCode2D(String code) {
+        if (code == null || code.isEmpty()) {
+            throw new IllegalArgumentException("位置码不能为空");
+        }
+        int level = BeiDouGridDecoder.getCodeLevel2D(code);
+        if (level < 1) {
+            throw new IllegalArgumentException("无效的二维网格码: " + code);
+        }
+        return parseCode2D(code, false, level);
+    }
+
+    /**
+     * 打包码转二维网格码字符串
+     *
+     * @param code 二维打包码
+     * @return 北斗二维网格位置码
+     */
+    public static String toCode2D(long code) {
+        int level = getLevel(code);
+        char[] chars = new char[BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[level]];
+        chars[0] = isSouth(code) ? 'S' : 'N';
+        int pos = 1;
+        for (int i = 1; i <= level; i++) {
+            pos = writeFragment(code, i, chars, pos);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 三维网格码字符串提取经纬部分打包码
+     *
+     * @param code3D 北斗三维网格位置码
+     * @return 经纬部分的二维打包码
+     */
+    public static long fromCode3D(String code3D) {
+        int level = BeiDouGridDecoder.getCodeLevel3D(code3D);
+        return parseCode2D(code3D, true, level);
+    }
+
+    /**
+     * 三维网格码字符串提取高度部分打包值
+     *
+     * @param code3D 北斗三维网格位置码
+     * @return 高度打包值（位31为高度方向，低31位为截断后的高度索引）
+     */
+    public static int heightFromCode3D(String code3D) {
+        int level = BeiDouGridDecoder.getCodeLevel3D(code3D);
+        char signChar = code3D.charAt(1);
+        if (signChar != '0' && signChar != '1') {
+            throw new IllegalArgumentException("无效的高度方向位: " + code3D);
+        }
+        int n = 0;
+        int pos = 2;
+        for (int i = 1; i <= level; i++) {
+            pos += BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i] - BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i - 1];
+            int radix = BeiDouGridConstants.ELEVATION_ENCODING[i][1];
+            int value;
+            if (i == 1) {
+                value = digit(code3D, pos, 10) * 10 + digit(code3D, pos + 1, 10);
+                pos += 2;
+            } else {
+                value = digit(code3D, pos, radix);
+                pos += 1;
+            }
+            int bits = BeiDouGridConstants.ELEVATION_ENCODING[i][0];
+            if (value >= (1 << bits)) {
+                throw new IllegalArgumentException("无效的" + i + "级高度编码: " + code3D);
+            }
+            n |= value << (HEIGHT_INDEX_BITS - HEIGHT_PREFIX_BITS[i]);
+        }
+        return signChar == '1' ? n | HEIGHT_SIGN_MASK : n;
+    }
+
+    /**
+     * 打包码转三维网格码字符串
+     *
+     * @param code   经纬部分的二维打包码
+     * @param height 高度打包值
+     * @return 北斗三维网格位置码
+     */
+    public static String toCode3D(long code, int height) {
+        int level = getLevel(code);
+        char[] chars = new char[BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[level] + 2 + level];
+        chars[0] = isSouth(code) ? 'S' : 'N';
+        chars[1] = (height & HEIGHT_SIGN_MASK) != 0 ? '1' : '0';
+        int n = height & ~HEIGHT_SIGN_MASK;
+        int pos = 2;
+        for (int i = 1; i <= level; i++) {
+            pos = writeFragment(code, i, chars, pos);
+            int bits = BeiDouGridConstants.ELEVATION_ENCODING[i][0];
+            int value = (n >>> (HEIGHT_INDEX_BITS - HEIGHT_PREFIX_BITS[i])) & ((1 << bits) - 1);
+            if (i == 1) {
+                chars[pos++] = (char) ('0' + value / 10);
+                chars[pos++] = (char) ('0' + value % 10);
+            } else {
+                chars[pos++] = Character.toUpperCase(Character.forDigit(value, BeiDouGridConstants.ELEVATION_ENCODING[i][1]));
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 构造高度打包值并截断到指定层级
+     *
+     * @param below 是否位于地下（高度方向位为1）
+     * @param n     高度索引绝对值（31位）
+     * @param level 层级（1-10）
+     * @return 高度打包值
+     */
+    public static int height(boolean below, int n, int level) {
+        int prefix = HEIGHT_PREFIX_BITS[level];
+        int mask = prefix == HEIGHT_INDEX_BITS ? ~HEIGHT_SIGN_MASK : ((1 << prefix) - 1) << (HEIGHT_INDEX_BITS - prefix);
+        int value = n & mask;
+        return below ? value | HEIGHT_SIGN_MASK : value;
+    }
+
+    /**
+     * 高度打包值是否位于地下
+     */
+    public static boolean isBelowGround(int height) {
+        return (height & HEIGHT_SIGN_MASK) != 0;
+    }
+
+    /**
+     * 获取高度打包值中的高度索引绝对值
+     */
+    public static int getHeightIndex(int height) {
+        return height & ~HEIGHT_SIGN_MASK;
+    }
+
+    /**
+     * 从字符串的指定位置开始解析二维行列号
+     *
+     * @param code    二维或三维网格码
+     * @param is3D    是否为三维网格码（每级二维片段之后需跳过高度编码）
+     */
+    private static long parseCode2D(String code, boolean is3D, int level) {
+        char latChar = code.charAt(0);
+        if (latChar != 'N' && latChar != 'S') {
+            throw new IllegalArgumentException("无效的纬度方向: " + code);
+        }
+        boolean south = latChar == 'S';
+        int pos = is3D ? 2 : 1;
+
+        int lngCode = digit(code, pos, 10) * 10 + digit(code, pos + 1, 10);
+        if (lngCode == 0) {
+            throw new IllegalArgumentException("暂不支持两极地区解码");
+        }
+        if (lngCode > 2 * LEVEL1_LNG_COLUMNS) {
+            throw new IllegalArgumentException("无效的1级经度编码: " + code);
+        }
+        boolean west = lngCode <= LEVEL1_LNG_COLUMNS;
+        int lngIndex = west ? LEVEL1_LNG_COLUMNS - lngCode : lngCode - LEVEL1_LNG_COLUMNS - 1;
+        int latIndex = code.charAt(pos + 2) - 'A';
+        long result = level1(south, west, lngIndex, latIndex);
+        pos += is3D ? 5 : 3;
+
+        for (int i = 2; i <= level; i++) {
+            int[] divisions = BeiDouGridConstants.GRID_DIVISIONS[i];
+            int lng;
+            int lat;
+            if (i == 3 || i == 6) {
+                int[] zOrderIndex = BeiDouGridConstants.ZORDER_CODE_INDEX[i][BeiDouGridCommonUtils.getHemisphereIndex(south, west)];
+                int z = digit(code, pos, 10);
+                if (z >= zOrderIndex.length) {
+                    throw new IllegalArgumentException("无效的" + i + "级网格编码: " + code);
+                }
+                lng = zOrderIndex[z] % divisions[0];
+                lat = zOrderIndex[z] / divisions[0];
+                pos += 1;
+            } else {
+                lng = digit(code, pos, 16);
+                lat = digit(code, pos + 1, 16);
+                lng = south ? BeiDouGridConstants.HEX_FLIP_MAX[i][0] - lng : lng;
+                lat = west ? BeiDouGridConstants.HEX_FLIP_MAX[i][1] - lat : lat;
+                pos += 2;
+            }
+            result = child(result, lng, lat);
+            pos += is3D ? 1 : 0;
+        }
+        return result;
+    }
+
+    /**
+     * 写入指定层级的二维编码片段，返回写入后的位置
+     */
+    private static int writeFragment(long code, int level, char[] chars, int pos) {
+        boolean south = isSouth(code);
+        boolean west = isWest(code);
+        int lng = getLngIndex(code, level);
+        int lat = getLatIndex(code, level);
+        int hemisphere = BeiDouGridCommonUtils.getHemisphereIndex(south, west);
+        switch (level) {
+            case 1 -> {
+                int lngCode = west ? LEVEL1_LNG_COLUMNS - lng : lng + LEVEL1_LNG_COLUMNS + 1;
+                chars[pos++] = (char) ('0' + lngCode / 10);
+                chars[pos++] = (char) ('0' + lngCode % 10);
+                chars[pos++] = (char) ('A' + lat);
+            }
+            case 3, 6 -> chars[pos++] = BeiDouGridConstants.ZORDER_CODE_CHARS[level][hemisphere][lat][lng];
+            default -> {
+                chars[pos++] = BeiDouGridConstants.HEX_LNG_CODE_CHARS[level][hemisphere][lng];
+                chars[pos++] = BeiDouGridConstants.HEX_LAT_CODE_CHARS[level][hemisphere][lat];
+            }
+        }
+        return pos;
+    }
+
+    private static int digit(String code, int pos, int radix) {
+        if (pos >= code.length()) {
+            throw new IllegalArgumentException("网格码长度错误: " + code);
+        }
+        char c = code.charAt(pos);
+        int value = c < BeiDouGridConstants.CODE_CHAR_VALUES.length ? BeiDouGridConstants.CODE_CHAR_VALUES[c] : -1;
+        if (value < 0 || value >= radix) {
+            throw new IllegalArgumentException("网格码包含非法字符: " + code);
+        }
+        return value;
+    }
+}
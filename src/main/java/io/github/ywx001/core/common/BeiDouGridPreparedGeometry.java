@@ -0,0 +1,200 @@
+package io.github.ywx001.core.common;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.geom.util.AffineTransformation;
+import org.locationtech.jts.geom.util.PolygonExtracter;
+import org.locationtech.jts.operation.overlayng.OverlayNG;
+import org.locationtech.jts.operation.overlayng.OverlayNGRobust;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 范围查询使用的预处理几何图形
+ *
+ * <p>每次查询开始时对输入几何图形构建一次JTS {@link PreparedGeometry}（内部为边建立空间索引）并缓存其外包矩形，
+ * 之后每个网格的相交判断都复用该结构，不再逐边遍历几何图形。</p>
+ *
+ * <p>经度超出±180°的几何图形（如跨太平洋时经度连续写作170°~190°）在反子午线处切开，
+ * 超出部分平移360°后与其余部分合并，查询结果同时包含反子午线两侧的网格。</p>
+ *
+ * <p>实例不可变且线程安全，可在并行细化的各任务之间共享。</p>
+ */
+public class BeiDouGridPreparedGeometry {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    /**
+     * 经度归一化到[-180°, 180°]后的几何图形
+     */
+    private final Geometry geometry;
+
+    /**
+     * 预处理后的几何图形
+     */
+    private final PreparedGeometry prepared;
+
+    /**
+     * 面状部分预处理后的几何图形，几何图形本身为面状时与 {@link #prepared} 相同，不含面时为null
+     */
+    private final PreparedGeometry preparedArea;
+
+    /**
+     * 面状部分预处理后的边界，不含面时为null
+     */
+    private final PreparedGeometry preparedBoundary;
+
+    /**
+     * 几何图形的外包矩形
+     */
+    private final Envelope envelope;
+
+    /**
+     * 预处理几何图形
+     *
+     * @param geometry 查询几何图形（支持点、线、多边形及其集合）
+     * @throws IllegalArgumentException 如果几何图形为空
+     */
+    public BeiDouGridPreparedGeometry(Geometry geometry) {
+        if (geometry == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        this.geometry = wrapLongitudes(geometry);
+        this.prepared = PreparedGeometryFactory.prepare(this.geometry);
+        // 几何图形集合不支持求边界：只取其中的多边形，点、线成分不影响内部判断
+        Geometry area = null;
+        if (this.geometry instanceof Polygonal) {
+            area = this.geometry;
+        } else if (this.geometry.getDimension() == 2) {
+            @SuppressWarnings("unchecked")
+            List<Polygon> polygons = PolygonExtracter.getPolygons(this.geometry);
+            area = GEOMETRY_FACTORY.buildGeometry(polygons);
+        }
+        if (area == null) {
+            this.preparedArea = null;
+            this.preparedBoundary = null;
+        } else {
+            this.preparedArea = area == this.geometry ? prepared : PreparedGeometryFactory.prepare(area);
+            this.preparedBoundary = PreparedGeometryFactory.prepare(area.getBoundary());
+        }
+        this.envelope = this.geometry.getEnvelopeInternal();
+    }
+
+    /**
+     * 在反子午线处切开经度超出±180°的几何图形，各部分平移整数个360°后合并
+     *
+     * @param geometry 几何图形
+     * @return 经度位于[-180°, 180°]内的几何图形，经度本来就在该范围内时返回原几何图形
+     */
+    static Geometry wrapLongitudes(Geometry geometry) {
+        Envelope envelope = geometry.getEnvelopeInternal();
+        if (envelope.isNull() || (envelope.getMinX() >= -180 && envelope.getMaxX() <= 180)) {
+            return geometry;
+        }
+        List<Geometry> pieces = new ArrayList<>();
+        long minTurn = (long) Math.ceil((envelope.getMinX() - 180) / 360);
+        long maxTurn = (long) Math.floor((envelope.getMaxX() + 180) / 360);
+        for (long turn = minTurn; turn <= maxTurn; turn++) {
+            double offset = turn * 360.0;
+            Geometry piece = OverlayNGRobust.overlay(geometry, toPolygon(offset - 180, offset + 180,
+                    Math.min(envelope.getMinY(), -90), Math.max(envelope.getMaxY(), 90)), OverlayNG.INTERSECTION);
+            if (!piece.isEmpty()) {
+                pieces.add(AffineTransformation.translationInstance(-offset, 0).transform(piece));
+            }
+        }
+        return OverlayNGRobust.union(pieces);
+    }
+
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    public Envelope getEnvelope() {
+        return envelope;
+    }
+
+    /**
+     * 判断经纬度矩形（含边界）是否与几何图形相交
+     *
+     * @param minLng 最小经度
+     * @param maxLng 最大经度
+     * @param minLat 最小纬度
+     * @param maxLat 最大纬度
+     * @return 是否相交
+     */
+    public boolean intersects(double minLng, double maxLng, double minLat, double maxLat) {
+        // 空几何图形或外包矩形不相交时直接排除
+        if (envelope.isNull() || maxLng < envelope.getMinX() || minLng > envelope.getMaxX()
+                || maxLat < envelope.getMinY() || minLat > envelope.getMaxY()) {
+            return false;
+        }
+        // 矩形覆盖整个外包矩形时必然相交
+        if (minLng <= envelope.getMinX() && maxLng >= envelope.getMaxX()
+                && minLat <= envelope.getMinY() && maxLat >= envelope.getMaxY()) {
+            return true;
+        }
+        return prepared.intersects(toPolygon(minLng, maxLng, minLat, maxLat));
+    }
+
+    /**
+     * 判断网格边界是否与几何图形相交
+     *
+     * @param bounds 网格边界 {minLng, maxLng, minLat, maxLat}，与 {@code BeiDouGridDecoder.decode2DBounds} 的输出一致
+     * @return 是否相交
+     */
+    public boolean intersects(double[] bounds) {
+        return intersects(bounds[0], bounds[1], bounds[2], bounds[3]);
+    }
+
+    /**
+     * 判断经纬度矩形与几何图形的空间关系
+     * <ul>
+     *     <li>{@code CONTAINS}：矩形完全位于几何图形内部（只可能出现在面状几何图形上）</li>
+     *     <li>{@code INTERSECTS}：矩形与几何图形相交但不被其包含</li>
+     *     <li>{@code DISJOINT}：矩形与几何图形不相交</li>
+     * </ul>
+     *
+     * @param minLng 最小经度
+     * @param maxLng 最大经度
+     * @param minLat 最小纬度
+     * @param maxLat 最大纬度
+     * @return 空间关系
+     */
+    public BeiDouGrid2DRangeQuery.SpatialRelation relate(double minLng, double maxLng, double minLat, double maxLat) {
+        if (envelope.isNull() || maxLng < envelope.getMinX() || minLng > envelope.getMaxX()
+                || maxLat < envelope.getMinY() || minLat > envelope.getMaxY()) {
+            return BeiDouGrid2DRangeQuery.SpatialRelation.DISJOINT;
+        }
+        Geometry rectangle = toPolygon(minLng, maxLng, minLat, maxLat);
+        if (!prepared.intersects(rectangle)) {
+            return BeiDouGrid2DRangeQuery.SpatialRelation.DISJOINT;
+        }
+        // 与面状部分相交但不触及其边界的矩形必然完全位于其内部
+        if (preparedBoundary != null && envelope.contains(minLng, minLat) && envelope.contains(maxLng, maxLat)
+                && !preparedBoundary.intersects(rectangle)
+                && (preparedArea == prepared || preparedArea.intersects(rectangle))) {
+            return BeiDouGrid2DRangeQuery.SpatialRelation.CONTAINS;
+        }
+        return BeiDouGrid2DRangeQuery.SpatialRelation.INTERSECTS;
+    }
+
+    /**
+     * 判断网格边界与几何图形的空间关系
+     *
+     * @param bounds 网格边界 {minLng, maxLng, minLat, maxLat}
+     * @return 空间关系，参见 {@link #relate(double, double, double, double)}
+     */
+    public BeiDouGrid2DRangeQuery.SpatialRelation relate(double[] bounds) {
+        return relate(bounds[0], bounds[1], bounds[2], bounds[3]);
+    }
+
+    private static Geometry toPolygon(double minLng, double maxLng, double minLat, double maxLat) {
+        return GEOMETRY_FACTORY.toGeometry(new Envelope(minLng, maxLng, minLat, maxLat));
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.ywx001.core.common;
+
+import io.github.ywx001.core.constants.BeiDouGridConstants;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+
+/**
+ * 北斗网格邻近查询工具类
+ *
+ * <p>在目标层级的全球格网（参见 {@link BeiDouGridPackedCode#fromLattice}）上按行列号直接枚举邻近网格，
+ * 不构造缓冲区几何图形，也不做逐级细化。每个网格只枚举一次，经度方向在180°经线处首尾相接。</p>
+ */
+@Slf4j
+public class BeiDouGridProximityQuery {
+
+    /**
+     * 枚举与网格相距不超过k步的同级网格（k环）
+     * <p>一步指移动到8邻域中的任一网格，因此结果为以该网格为中心、边长2k+1个网格的方块，
+     * 超出格网南北边界的行被截去。</p>
+     *
+     * @param code 中心网格打包码
+     * @param k    步数，不小于0
+     * @return 网格打包码，自南向北、自西向东排列，包含中心网格
+     * @throws IllegalArgumentException 如果步数小于0
+     */
+    public static long[] kRing(long code, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("步数不能小于0");
+        }
+        int level = BeiDouGridPackedCode.getLevel(code);
+        long columns = BeiDouGridPackedCode.latticeColumns(level);
+        long rows = BeiDouGridPackedCode.latticeRows(level);
+        long lng = BeiDouGridPackedCode.getLatticeLngIndex(code);
+        long lat = BeiDouGridPackedCode.getLatticeLatIndex(code);
+
+        long minRow = Math.max(lat - k, -rows);
+        long maxRow = Math.min(lat + k, rows - 1);
+        long width = Math.min(2L * k + 1, 2 * columns);
+        long[] cells = new long[Math.toIntExact((maxRow - minRow + 1) * width)];
+        int count = 0;
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long i = 0; i < width; i++) {
+                cells[count++] = BeiDouGridPackedCode.fromLattice(level, wrapColumn(lng - k + i, columns), row);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * 枚举与以某点为圆心、指定半径的球面圆相交的网格
+     * <p>先由半径求出圆在纬度和经度方向的角半径：纬度方向与纬度无关，经度方向随纬度升高而增大
+     * （圆包含极点时取全部经度），在该范围内逐行逐列计算点到网格的球面最短距离，不超过半径的网格即为结果。</p>
+     *
+     * @param longitude 圆心经度
+     * @param latitude  圆心纬度
+     * @param radius    半径（米），不小于0
+     * @param level     网格级别，范围1-10
+     * @return 与圆相交的网格打包码，自南向北、自西向东排列
+     * @throws IllegalArgumentException 如果半径小于0或级别不在1-10范围内
+     */
+    public static long[] cellsWithinMeters(double longitude, double latitude, double radius, int level) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("半径不能小于0");
+        }
+        if (level < 1 || level > 10) {
+            throw new IllegalArgumentException("网格级别必须在1-10之间");
+        }
+        long startTime = System.currentTimeMillis();
+        long lngUnits = BeiDouGridConstants.GRID_SIZES_UNITS[level][0];
+        long latUnits = BeiDouGridConstants.GRID_SIZES_UNITS[level][1];
+        long columns = BeiDouGridPackedCode.latticeColumns(level);
+        long rows = BeiDouGridPackedCode.latticeRows(level);
+
+        double angle = radius / BeiDouGridConstants.EARTH_RADIUS;
+        double angleDegrees = Math.toDegrees(angle);
+        double phi = Math.toRadians(latitude);
+
+        // 纬度范围：多取一行，由距离计算排除
+        long minRow = Math.max(index(latitude - angleDegrees, latUnits) - 1, -rows);
+        long maxRow = Math.min(index(latitude + angleDegrees, latUnits) + 1, rows - 1);
+
+        // 经度范围：球面圆的最大经度半宽asin(sin(角半径)/cos(纬度))，圆包含极点时为全部经度
+        long centerColumn = index(longitude, lngUnits);
+        long minColumn;
+        long width;
+        double sinHalfWidth = Math.cos(phi) > 0 ? Math.sin(Math.min(angle, Math.PI / 2)) / Math.cos(phi) : 2;
+        if (angle >= Math.PI / 2 || sinHalfWidth >= 1) {
+            minColumn = -columns;
+            width = 2 * columns;
+        } else {
+            long halfColumns = index(Math.toDegrees(Math.asin(sinHalfWidth)), lngUnits) + 1;
+            minColumn = centerColumn - halfColumns;
+            width = Math.min(2 * halfColumns + 1, 2 * columns);
+        }
+
+        long[] cells = new long[16];
+        int count = 0;
+        for (long row = minRow; row <= maxRow; row++) {
+            double minLat = BeiDouGridPackedCode.latticeLine(row, latUnits);
+            double maxLat = BeiDouGridPackedCode.latticeLine(row + 1, latUnits);
+            for (long i = 0; i < width; i++) {
+                long column = wrapColumn(minColumn + i, columns);
+                double minLng = BeiDouGridPackedCode.latticeLine(column, lngUnits);
+                double maxLng = BeiDouGridPackedCode.latticeLine(column + 1, lngUnits);
+                if (distanceToCell(longitude, latitude, minLng, maxLng, minLat, maxLat) <= angle) {
+                    if (count == cells.length) {
+                        cells = Arrays.copyOf(cells, count * 2);
+                    }
+                    cells[count++] = BeiDouGridPackedCode.fromLattice(level, column, row);
+                }
+            }
+        }
+
+        log.debug("邻近查询完成：半径 {} 米内找到 {} 个{}级网格，耗时 {}ms",
+                radius, count, level, System.currentTimeMillis() - startTime);
+        return Arrays.copyOf(cells, count);
+    }
+
+    /**
+     * 点到经纬度矩形的球面最短距离（弧度）
+     * <p>点的经度落在矩形经度范围内时，最近点在同一经线上；否则最近点在较近的一条经线边上，
+     * 点到整条经线的最近点纬度为atan(tan(纬度)/cos(经差))，截断到矩形纬度范围内即为经线段上的最近点。</p>
+     */
+    private static double distanceToCell(double lng, double lat, double minLng, double maxLng,
+                                         double minLat, double maxLat) {
+        double toMin = normalizeLongitude(minLng - lng);
+        double toMax = normalizeLongitude(lng - maxLng);
+        if (toMin <= 0 && toMax <= 0) {
+            return Math.toRadians(Math.max(0, Math.max(minLat - lat, lat - maxLat)));
+        }
+        double deltaLng = Math.toRadians(Math.min(Math.abs(toMin), Math.abs(toMax)));
+        if (deltaLng >= Math.PI / 2) {
+            // 经差不小于90°时，经线上的驻点是最远点，最近点必在经线段的某个端点上
+            return Math.min(haversine(lat, minLat, deltaLng), haversine(lat, maxLat, deltaLng));
+        }
+        double footLat = Math.toDegrees(Math.atan(Math.tan(Math.toRadians(lat)) / Math.cos(deltaLng)));
+        return haversine(lat, Math.max(minLat, Math.min(maxLat, footLat)), deltaLng);
+    }
+
+    /**
+     * 把经度差规范到[-180, 180)
+     */
+    private static double normalizeLongitude(double delta) {
+        return delta - 360 * Math.floor((delta + 180) / 360);
+    }
+
+    private static double haversine(double lat1, double lat2, double deltaLngRadians) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinLat = Math.sin((phi2 - phi1) / 2);
+        double sinLng = Math.sin(deltaLngRadians / 2);
+        double a = sinLat * sinLat + Math.cos(phi1) * Math.cos(phi2) * sinLng * sinLng;
+        return 2 * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * 坐标所在网格的带符号行列号
+     */
+    private static long index(double degrees, long units) {
+        return (long) Math.floor(degrees * BeiDouGridConstants.UNITS_PER_DEGREE / units);
+    }
+
+    /**
+     * 把列号规范到[-columns, columns)
+     */
+    private static long wrapColumn(long column, long columns) {
+        return Math.floorMod(column + columns, 2 * columns) - columns;
+    }
+}
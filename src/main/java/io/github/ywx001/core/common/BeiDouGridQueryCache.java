@@ -0,0 +1,261 @@
+package io.github.ywx001.core.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKBWriter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 北斗网格范围查询结果缓存
+ *
+ * <p>以规范化几何图形的WKB（{@link Geometry#norm()} 后写出，与顶点起点、环方向、成分顺序无关）的SHA-256摘要加网格级别为键，
+ * 缓存 {@link BeiDouGrid2DRangeQuery#find2DGridCodesInRange(Geometry, int)} 的结果。
+ * 键只保存32字节的摘要而不保存WKB本身，顶点很多的几何图形也不会在缓存中占用权重之外的内存。
+ * 结果以排序后的打包码数组保存，对外是不可修改的网格码集合视图，遍历时才转换为字符串，
+ * 每个网格只占8字节。</p>
+ *
+ * <p>缓存按网格总数（权重）和条目数两个上限以LRU顺序淘汰，统计命中、未命中和淘汰次数。
+ * 实例线程安全；同一键同时未命中时各线程分别计算，后写入的结果覆盖先写入的，结果相同。</p>
+ */
+@Slf4j
+public class BeiDouGridQueryCache {
+
+    /**
+     * 最大网格总数
+     */
+    private final long maxWeight;
+
+    /**
+     * 最大条目数
+     */
+    private final int maxEntries;
+
+    /**
+     * 按访问顺序排列的缓存条目，最久未访问的在最前
+     */
+    private final LinkedHashMap<Key, CompactCodeSet> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * 创建缓存
+     *
+     * @param maxWeight  缓存的网格总数上限
+     * @param maxEntries 缓存的查询条目数上限
+     * @throws IllegalArgumentException 如果上限小于1
+     */
+    public BeiDouGridQueryCache(long maxWeight, int maxEntries) {
+        if (maxWeight < 1 || maxEntries < 1) {
+            throw new IllegalArgumentException("缓存上限必须大于0");
+        }
+        this.maxWeight = maxWeight;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 查找与几何图形相交的二维网格码，命中缓存时直接返回
+     * <p>结果超过网格总数上限时照常返回但不缓存。</p>
+     *
+     * @param geom        几何图形对象，支持多边形、线、点等JTS几何类型
+     * @param targetLevel 目标网格级别，范围1-10
+     * @return 不可修改的网格码集合
+     * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
+     */
+    public Set<String> find2DGridCodesInRange(Geometry geom, int targetLevel) {
+        if (geom == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        if (targetLevel < 1 || targetLevel > 10) {
+            throw new IllegalArgumentException("目标层级必须在1-10之间");
+        }
+        Key key = new Key(digest(new WKBWriter(2).write(geom.norm())), targetLevel);
+        synchronized (this) {
+            CompactCodeSet cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        long[] cells = BeiDouGrid2DRangeQuery.stream2DGridCells(new BeiDouGridPreparedGeometry(geom), targetLevel)
+                .toArray();
+        Arrays.sort(cells);
+        CompactCodeSet result = new CompactCodeSet(cells);
+        if (cells.length <= maxWeight) {
+            put(key, result);
+        }
+        return result;
+    }
+
+    private static byte[] digest(byte[] wkb) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(wkb);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前环境不支持SHA-256摘要算法", e);
+        }
+    }
+
+    private synchronized void put(Key key, CompactCodeSet value) {
+        CompactCodeSet previous = entries.put(key, value);
+        weight += value.size() - (previous == null ? 0 : previous.size());
+        Iterator<Map.Entry<Key, CompactCodeSet>> iterator = entries.entrySet().iterator();
+        while ((weight > maxWeight || entries.size() > maxEntries) && iterator.hasNext()) {
+            Map.Entry<Key, CompactCodeSet> eldest = iterator.next();
+            weight -= eldest.getValue().size();
+            iterator.remove();
+            evictions++;
+        }
+        log.debug("缓存写入：{}级 {} 个网格，缓存共 {} 条、{} 个网格", key.level, value.size(), entries.size(), weight);
+    }
+
+    /**
+     * 清空缓存，统计数据保留
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * 获取缓存统计
+     *
+     * @return 当前统计数据的快照
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, entries.size(), weight);
+    }
+
+    /**
+     * 缓存统计快照
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static final class Stats {
+        /**
+         * 命中次数
+         */
+        private final long hits;
+        /**
+         * 未命中次数
+         */
+        private final long misses;
+        /**
+         * 淘汰条目数
+         */
+        private final long evictions;
+        /**
+         * 当前条目数
+         */
+        private final int entries;
+        /**
+         * 当前缓存的网格总数
+         */
+        private final long weight;
+
+        /**
+         * 命中率，没有查询时为0
+         *
+         * @return 命中次数占查询次数的比例
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * 缓存键：规范化WKB的SHA-256摘要与级别
+     */
+    private static final class Key {
+        private final byte[] digest;
+        private final int level;
+        private final int hash;
+
+        private Key(byte[] digest, int level) {
+            this.digest = digest;
+            this.level = level;
+            this.hash = 31 * Arrays.hashCode(digest) + level;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key other)) {
+                return false;
+            }
+            return level == other.level && hash == other.hash && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 以排序打包码数组保存的不可修改网格码集合
+     */
+    private static final class CompactCodeSet extends AbstractSet<String> {
+        private final long[] cells;
+
+        private CompactCodeSet(long[] cells) {
+            this.cells = cells;
+        }
+
+        @Override
+        public int size() {
+            return cells.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof String code)) {
+                return false;
+            }
+            try {
+                return Arrays.binarySearch(cells, BeiDouGridPackedCode.fromCode2D(code)) >= 0;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < cells.length;
+                }
+
+                @Override
+                public String next() {
+                    if (index >= cells.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return BeiDouGridPackedCode.toCode2D(cells[index++]);
+                }
+            };
+        }
+    }
+}
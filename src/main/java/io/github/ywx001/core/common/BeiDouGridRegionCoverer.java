@@ -0,0 +1,233 @@
+package io.github.ywx001.core.common;
+
+import io.github.ywx001.core.constants.BeiDouGridConstants;
+import io.github.ywx001.core.decoder.BeiDouGridDecoder;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 北斗网格混合层级覆盖工具类
+ *
+ * <p>用不同层级的网格组合覆盖几何图形：完全位于几何图形内部的区域使用尽可能大的网格，
+ * 只有边界附近的网格才继续细化，细化受最大层级和网格数量预算约束；
+ * 最后把子网格齐全的同一父网格合并为父网格，得到网格数最少的覆盖结果。</p>
+ *
+ * <p>普通覆盖（{@link #getCovering}）包含所有与几何图形相交的网格，覆盖范围不小于几何图形；
+ * 内部覆盖（{@link #getInteriorCovering}）只包含完全位于几何图形内部的网格，覆盖范围不大于几何图形。</p>
+ */
+@Slf4j
+public class BeiDouGridRegionCoverer {
+
+    /**
+     * 计算覆盖几何图形的混合层级网格码集合
+     *
+     * @param geom     几何图形对象，支持多边形、线、点等JTS几何类型
+     * @param minLevel 最小网格级别，结果中不会出现比该级别更大的网格
+     * @param maxLevel 最大网格级别，边界网格最多细化到该级别
+     * @param maxCells 网格数量预算，参见 {@link #getCoveringCells}
+     * @return 覆盖几何图形的网格码集合
+     * @throws IllegalArgumentException 如果几何图形为空、级别不在1-10范围内、最小级别大于最大级别或预算小于1
+     */
+    public static Set<String> getCovering(Geometry geom, int minLevel, int maxLevel, int maxCells) {
+        if (geom == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        return toCodes(getCoveringCells(new BeiDouGridPreparedGeometry(geom), minLevel, maxLevel, maxCells));
+    }
+
+    /**
+     * 计算覆盖几何图形的混合层级网格打包码
+     * <p>从1级网格开始按层级由大到小细化与边界相交的网格，完全位于内部的网格不再细化。
+     * 细化某个网格会使结果超出预算时保留该网格本身，因此预算越小结果越粗糙。
+     * 预算是软约束：最小级别要求的网格数超出预算时，以最小级别为准。</p>
+     *
+     * @param prepared 预处理几何图形
+     * @param minLevel 最小网格级别
+     * @param maxLevel 最大网格级别
+     * @param maxCells 网格数量预算
+     * @return 覆盖几何图形的网格打包码，各网格互不重叠
+     * @throws IllegalArgumentException 如果级别不在1-10范围内、最小级别大于最大级别或预算小于1
+     */
+    public static long[] getCoveringCells(BeiDouGridPreparedGeometry prepared, int minLevel, int maxLevel, int maxCells) {
+        return cover(prepared, minLevel, maxLevel, maxCells, false);
+    }
+
+    /**
+     * 计算完全位于几何图形内部的混合层级网格码集合（内部覆盖）
+     * <p>最小级别与最大级别相同时即为单一级别的内部网格。与 {@link #getCovering} 的结果配合使用时，
+     * 落在内部覆盖网格中的点必然位于几何图形内，只有落在其余边界网格中的点才需要精确判断。</p>
+     *
+     * @param geom     几何图形对象，只有面状几何图形才可能有内部网格
+     * @param minLevel 最小网格级别
+     * @param maxLevel 最大网格级别
+     * @param maxCells 网格数量预算，参见 {@link #getInteriorCoveringCells}
+     * @return 完全位于几何图形内部的网格码集合
+     * @throws IllegalArgumentException 如果几何图形为空、级别不在1-10范围内、最小级别大于最大级别或预算小于1
+     */
+    public static Set<String> getInteriorCovering(Geometry geom, int minLevel, int maxLevel, int maxCells) {
+        if (geom == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        return toCodes(getInteriorCoveringCells(new BeiDouGridPreparedGeometry(geom), minLevel, maxLevel, maxCells));
+    }
+
+    /**
+     * 计算完全位于几何图形内部的混合层级网格打包码
+     * <p>细化过程与 {@link #getCoveringCells} 相同，但与边界相交的网格不会加入结果：
+     * 细化到最大级别仍与边界相交、或继续细化会使结果超出预算的网格直接舍弃。
+     * 预算是软约束：最小级别要求的网格数超出预算时，以最小级别为准。</p>
+     *
+     * @param prepared 预处理几何图形
+     * @param minLevel 最小网格级别
+     * @param maxLevel 最大网格级别
+     * @param maxCells 网格数量预算
+     * @return 完全位于几何图形内部的网格打包码，各网格互不重叠
+     * @throws IllegalArgumentException 如果级别不在1-10范围内、最小级别大于最大级别或预算小于1
+     */
+    public static long[] getInteriorCoveringCells(BeiDouGridPreparedGeometry prepared, int minLevel, int maxLevel, int maxCells) {
+        return cover(prepared, minLevel, maxLevel, maxCells, true);
+    }
+
+    /**
+     * 覆盖计算
+     *
+     * @param interior 是否只保留内部网格
+     */
+    private static long[] cover(BeiDouGridPreparedGeometry prepared, int minLevel, int maxLevel, int maxCells,
+                                boolean interior) {
+        long startTime = System.currentTimeMillis();
+        validateParameters(prepared, minLevel, maxLevel, maxCells);
+
+        Set<Long> result = new HashSet<>();
+        long[][] buffers = new long[maxLevel][BeiDouGridConstants.MAX_CHILD_COUNT];
+        double[] bounds = new double[4];
+
+        // 待细化的边界网格，逐级处理，保证大网格优先细化
+        List<Long> frontier = new ArrayList<>();
+        for (long cell : BeiDouGrid2DRangeQuery.findIntersectingLevel1Cells(prepared)) {
+            BeiDouGridDecoder.decode2DBounds(cell, bounds);
+            addCandidate(cell, prepared.relate(bounds), minLevel, buffers, frontier, result);
+        }
+
+        for (int level = 1; level <= maxLevel && !frontier.isEmpty(); level++) {
+            List<Long> next = new ArrayList<>();
+            for (int i = 0; i < frontier.size(); i++) {
+                long cell = frontier.get(i);
+                if (level == maxLevel) {
+                    if (!interior) {
+                        result.add(cell);
+                    }
+                    continue;
+                }
+                long[] children = buffers[level];
+                int count = BeiDouGridPackedCode.children(cell, children);
+                // 细化后的网格总数估计：已确定的 + 本网格的子网格，普通覆盖还要计入本级尚未处理的和下一级待细化的边界网格
+                int pending = interior ? result.size() : result.size() + (frontier.size() - i - 1) + next.size();
+                if (level >= minLevel && pending + count > maxCells) {
+                    if (!interior) {
+                        result.add(cell);
+                    }
+                    continue;
+                }
+                for (int j = 0; j < count; j++) {
+                    BeiDouGridDecoder.decode2DBounds(children[j], bounds);
+                    addCandidate(children[j], prepared.relate(bounds), minLevel, buffers, next, result);
+                }
+            }
+            frontier = next;
+        }
+
+        mergeSiblings(result, minLevel, maxLevel);
+
+        long totalTime = System.currentTimeMillis() - startTime;
+        log.debug("混合层级{}覆盖完成：{}-{}级共 {} 个网格，耗时 {}ms",
+                interior ? "内部" : "", minLevel, maxLevel, result.size(), totalTime);
+
+        return result.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * 按空间关系处理候选网格：内部网格直接加入结果（不足最小级别时先枚举到最小级别），边界网格加入待细化列表
+     */
+    private static void addCandidate(long cell, BeiDouGrid2DRangeQuery.SpatialRelation relation, int minLevel,
+                                     long[][] buffers, List<Long> frontier, Set<Long> result) {
+        switch (relation) {
+            case CONTAINS:
+                if (BeiDouGridPackedCode.getLevel(cell) >= minLevel) {
+                    result.add(cell);
+                } else {
+                    BeiDouGrid2DRangeQuery.enumerateCells(cell, minLevel, buffers, result::add);
+                }
+                break;
+            case INTERSECTS:
+                frontier.add(cell);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 自最大级别向上逐级把子网格齐全的同一父网格合并为父网格，父网格级别不小于最小级别
+     *
+     * @param cells    网格打包码集合，原地修改
+     * @param minLevel 最小网格级别
+     * @param maxLevel 最大网格级别
+     */
+    static void mergeSiblings(Set<Long> cells, int minLevel, int maxLevel) {
+        long[] children = new long[BeiDouGridConstants.MAX_CHILD_COUNT];
+        for (int level = maxLevel; level > minLevel; level--) {
+            Map<Long, Integer> siblingCounts = new HashMap<>();
+            for (long cell : cells) {
+                if (BeiDouGridPackedCode.getLevel(cell) == level) {
+                    siblingCounts.merge(BeiDouGridPackedCode.parent(cell), 1, Integer::sum);
+                }
+            }
+            int[] divisions = BeiDouGridConstants.GRID_DIVISIONS[level];
+            int childCount = divisions[0] * divisions[1];
+            for (Map.Entry<Long, Integer> entry : siblingCounts.entrySet()) {
+                if (entry.getValue() == childCount) {
+                    long parent = entry.getKey();
+                    int count = BeiDouGridPackedCode.children(parent, children);
+                    for (int i = 0; i < count; i++) {
+                        cells.remove(children[i]);
+                    }
+                    cells.add(parent);
+                }
+            }
+        }
+    }
+
+    /**
+     * 打包码数组转网格码集合
+     */
+    static Set<String> toCodes(long[] cells) {
+        Set<String> codes = new HashSet<>(cells.length * 4 / 3 + 1);
+        for (long cell : cells) {
+            codes.add(BeiDouGridPackedCode.toCode2D(cell));
+        }
+        return codes;
+    }
+
+    /**
+     * 参数验证
+     */
+    private static void validateParameters(BeiDouGridPreparedGeometry prepared, int minLevel, int maxLevel, int maxCells) {
+        if (prepared == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        if (minLevel < 1 || maxLevel > 10 || minLevel > maxLevel) {
+            throw new IllegalArgumentException("网格级别必须满足1 <= 最小级别 <= 最大级别 <= 10");
+        }
+        if (maxCells < 1) {
+            throw new IllegalArgumentException("网格数量预算必须大于0");
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package io.github.ywx001.core.common;
+
+import io.github.ywx001.core.constants.BeiDouGridConstants;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.util.LineStringExtracter;
+import org.locationtech.jts.geom.util.PointExtracter;
+import org.locationtech.jts.geom.util.PolygonExtracter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 北斗网格扫描线栅格化工具类
+ *
+ * <p>把几何图形栅格化到目标层级的全球格网（参见 {@link BeiDouGridPackedCode#fromLattice}）上，
+ * 按纬度行输出与几何图形相交的连续经度列区间。一个网格与几何图形相交，当且仅当有边穿过该网格（含边界），
+ * 或网格完全位于面内（此时网格中心必在面内），因此每行分两部分计算：</p>
+ * <ul>
+ *     <li>边网格：活动边表中每条边裁剪到该行后覆盖的列区间；</li>
+ *     <li>内部网格：过该行网格中心的扫描线与各面的交点按奇偶规则配对，区间内中心所在的列。</li>
+ * </ul>
+ * <p>计算量与行数、边数和输出的列区间数成正比，与外包矩形面积无关，狭长的斜向多边形不再为整个外包矩形付出代价。
+ * 经度超出±180°的几何图形先按 {@link BeiDouGridPreparedGeometry} 的方式在反子午线处切开。</p>
+ */
+public class BeiDouGridScanlineRasterizer {
+
+    /**
+     * 列区间回调
+     */
+    @FunctionalInterface
+    public interface RunConsumer {
+        /**
+         * 接收一行中的连续列区间（含两端）
+         *
+         * @param latIndex     带符号纬度行号
+         * @param fromLngIndex 起始带符号经度列号
+         * @param toLngIndex   结束带符号经度列号
+         */
+        void accept(long latIndex, long fromLngIndex, long toLngIndex);
+    }
+
+    /**
+     * 栅格化几何图形，自南向北逐行输出互不重叠、互不相邻的列区间
+     *
+     * @param geom     几何图形，支持点、线、多边形及其集合
+     * @param level    目标层级（1-10）
+     * @param consumer 列区间回调
+     * @throws IllegalArgumentException 如果几何图形为空或目标级别不在 1-10 范围内
+     */
+    public static void rasterize(Geometry geom, int level, RunConsumer consumer) {
+        if (geom == null) {
+            throw new IllegalArgumentException("几何图形不能为空");
+        }
+        if (level < 1 || level > 10) {
+            throw new IllegalArgumentException("目标层级必须在1-10之间");
+        }
+        geom = BeiDouGridPreparedGeometry.wrapLongitudes(geom);
+        Envelope envelope = geom.getEnvelopeInternal();
+        if (envelope.isNull()) {
+            return;
+        }
+        long lngUnits = BeiDouGridConstants.GRID_SIZES_UNITS[level][0];
+        long latUnits = BeiDouGridConstants.GRID_SIZES_UNITS[level][1];
+        long columns = BeiDouGridPackedCode.latticeColumns(level);
+        long rows = BeiDouGridPackedCode.latticeRows(level);
+
+        Edge[] edges = collectEdges(geom);
+        Arrays.sort(edges, Comparator.comparingDouble(edge -> edge.minY));
+
+        long minRow = Math.max(lowerIndex(envelope.getMinY(), latUnits), -rows);
+        long maxRow = Math.min(upperIndex(envelope.getMaxY(), latUnits), rows - 1);
+
+        List<Edge> active = new ArrayList<>();
+        List<long[]> intervals = new ArrayList<>();
+        List<double[]> crossings = new ArrayList<>();
+        int nextEdge = 0;
+        for (long row = minRow; row <= maxRow; row++) {
+            double bandMin = BeiDouGridPackedCode.latticeLine(row, latUnits);
+            double bandMax = BeiDouGridPackedCode.latticeLine(row + 1, latUnits);
+
+            // 维护活动边表：加入进入本行的边，移除已完全位于本行以南的边
+            while (nextEdge < edges.length && edges[nextEdge].minY <= bandMax) {
+                active.add(edges[nextEdge++]);
+            }
+            active.removeIf(edge -> edge.maxY < bandMin);
+
+            intervals.clear();
+            crossings.clear();
+            double scanY = (bandMin + bandMax) / 2;
+            for (Edge edge : active) {
+                // 边网格：边裁剪到本行后的经度范围
+                double[] range = edge.clip(bandMin, bandMax);
+                if (range != null) {
+                    addInterval(intervals, lowerIndex(range[0], lngUnits), upperIndex(range[1], lngUnits), columns);
+                }
+                // 扫描线交点：半开区间规则，水平边不参与
+                if (edge.polygon >= 0 && edge.minY <= scanY && scanY < edge.maxY) {
+                    crossings.add(new double[]{edge.polygon, edge.xAt(scanY)});
+                }
+            }
+
+            // 内部网格：同一多边形的交点按奇偶规则配对，取中心位于区间内的列
+            crossings.sort(Comparator.<double[]>comparingDouble(crossing -> crossing[0])
+                    .thenComparingDouble(crossing -> crossing[1]));
+            for (int i = 0; i + 1 < crossings.size(); i += 2) {
+                double xIn = crossings.get(i)[1];
+                double xOut = crossings.get(i + 1)[1];
+                long from = upperIndex(xIn, lngUnits);
+                if (center(from, lngUnits) < xIn) {
+                    from++;
+                }
+                long to = upperIndex(xOut, lngUnits);
+                if (center(to, lngUnits) > xOut) {
+                    to--;
+                }
+                addInterval(intervals, from, to, columns);
+            }
+
+            emitRuns(row, intervals, consumer);
+        }
+    }
+
+    private static double center(long index, long units) {
+        return (index * 2 + 1) * units / (2 * BeiDouGridConstants.UNITS_PER_DEGREE);
+    }
+
+    /**
+     * 包含该坐标的网格（含边界）中最小的行列号：恰好位于网格线上时包含网格线另一侧相接的网格
+     */
+    private static long lowerIndex(double value, long units) {
+        long index = (long) Math.floor(value * BeiDouGridConstants.UNITS_PER_DEGREE / units);
+        while (BeiDouGridPackedCode.latticeLine(index, units) >= value) {
+            index--;
+        }
+        while (BeiDouGridPackedCode.latticeLine(index + 1, units) < value) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * 包含该坐标的网格（含边界）中最大的行列号
+     */
+    private static long upperIndex(double value, long units) {
+        long index = (long) Math.floor(value * BeiDouGridConstants.UNITS_PER_DEGREE / units);
+        while (BeiDouGridPackedCode.latticeLine(index, units) > value) {
+            index--;
+        }
+        while (BeiDouGridPackedCode.latticeLine(index + 1, units) <= value) {
+            index++;
+        }
+        return index;
+    }
+
+    private static void addInterval(List<long[]> intervals, long from, long to, long columns) {
+        from = Math.max(from, -columns);
+        to = Math.min(to, columns - 1);
+        if (from <= to) {
+            intervals.add(new long[]{from, to});
+        }
+    }
+
+    /**
+     * 合并本行的列区间并输出
+     */
+    private static void emitRuns(long row, List<long[]> intervals, RunConsumer consumer) {
+        if (intervals.isEmpty()) {
+            return;
+        }
+        intervals.sort(Comparator.comparingLong(interval -> interval[0]));
+        long from = intervals.get(0)[0];
+        long to = intervals.get(0)[1];
+        for (int i = 1; i < intervals.size(); i++) {
+            long[] interval = intervals.get(i);
+            if (interval[0] <= to + 1) {
+                to = Math.max(to, interval[1]);
+            } else {
+                consumer.accept(row, from, to);
+                from = interval[0];
+                to = interval[1];
+            }
+        }
+        consumer.accept(row, from, to);
+    }
+
+    /**
+     * 提取几何图形的全部边：多边形各环的线段、线状成分的线段、点成分的退化线段；多边形环的边记录所属多边形序号
+     */
+    private static Edge[] collectEdges(Geometry geom) {
+        List<Edge> edges = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        List<Polygon> polygons = PolygonExtracter.getPolygons(geom);
+        for (int i = 0; i < polygons.size(); i++) {
+            Polygon polygon = polygons.get(i);
+            addEdges(edges, polygon.getExteriorRing(), i);
+            for (int j = 0; j < polygon.getNumInteriorRing(); j++) {
+                addEdges(edges, polygon.getInteriorRingN(j), i);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<LineString> lines = LineStringExtracter.getLines(geom);
+        for (LineString line : lines) {
+            addEdges(edges, line, -1);
+        }
+        @SuppressWarnings("unchecked")
+        List<Point> points = PointExtracter.getPoints(geom);
+        for (Point point : points) {
+            if (!point.isEmpty()) {
+                Coordinate c = point.getCoordinate();
+                edges.add(new Edge(c.x, c.y, c.x, c.y, -1));
+            }
+        }
+        return edges.toArray(new Edge[0]);
+    }
+
+    private static void addEdges(List<Edge> edges, LineString line, int polygon) {
+        Coordinate[] coordinates = line.getCoordinates();
+        if (coordinates.length == 1) {
+            edges.add(new Edge(coordinates[0].x, coordinates[0].y, coordinates[0].x, coordinates[0].y, polygon));
+        }
+        for (int i = 0; i + 1 < coordinates.length; i++) {
+            edges.add(new Edge(coordinates[i].x, coordinates[i].y, coordinates[i + 1].x, coordinates[i + 1].y, polygon));
+        }
+    }
+
+    /**
+     * 线段
+     */
+    private static final class Edge {
+        private final double x0;
+        private final double y0;
+        private final double x1;
+        private final double y1;
+        private final double minY;
+        private final double maxY;
+        /**
+         * 所属多边形序号，非多边形的边为-1
+         */
+        private final int polygon;
+
+        private Edge(double x0, double y0, double x1, double y1, int polygon) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.minY = Math.min(y0, y1);
+            this.maxY = Math.max(y0, y1);
+            this.polygon = polygon;
+        }
+
+        private double xAt(double y) {
+            return x0 + (y - y0) * (x1 - x0) / (y1 - y0);
+        }
+
+        /**
+         * 线段裁剪到纬度带[bandMin, bandMax]后的经度范围，不相交时返回null
+         */
+        private double[] clip(double bandMin, double bandMax) {
+            if (maxY < bandMin || minY > bandMax) {
+                return null;
+            }
+            if (y0 == y1) {
+                return new double[]{Math.min(x0, x1), Math.max(x0, x1)};
+            }
+            double xa = xAt(Math.max(minY, bandMin));
+            double xb = xAt(Math.min(maxY, bandMax));
+            return new double[]{Math.min(xa, xb), Math.max(xa, xb)};
+        }
+    }
+}
@@ -27,6 +27,12 @@ public class BeiDouGridConstants {
             {bd(1).divide(bd(2048 * 3600), 10, RoundingMode.HALF_UP), bd(1).divide(bd(2048 * 3600), 10, RoundingMode.HALF_UP)} // 10级：1/2048″×1/2048″
     };
 
+    /**
+     * 网格尺寸数组[层级][0:经度, 1:纬度]，单位为1e-10度
+     * 与GRID_SIZES_DEGREES（保留10位小数）数值完全相同，供整数运算编码使用
+     */
+    public static final long[][] GRID_SIZES_SCALED = calculateGridSizesScaled();
+
     /**
      * 各层级网格行列数[经度方向, 纬度方向]
      */
@@ -44,6 +50,46 @@ public class BeiDouGridConstants {
             {8, 8}       // 第10级
     };
 
+    /**
+     * 单个父网格的最大子网格数（5级：15×15）
+     */
+    public static final int MAX_CHILD_COUNT = 225;
+
+    /**
+     * 二、四、五、七至十级十六进制编码按半球翻转时使用的最大值[经度, 纬度]
+     * 南半球经度编码为 最大值-列号，西半球纬度编码为 最大值-行号
+     */
+    public static final int[][] HEX_FLIP_MAX = {
+            {}, {}, {11, 7}, {}, {14, 14}, {14, 14}, {}, {7, 7}, {7, 7}, {7, 7}, {7, 7}
+    };
+
+    /**
+     * 编码字符到数值的映射表（'0'-'9'、'A'-'F'、'a'-'f'），其他ASCII字符为-1
+     */
+    public static final int[] CODE_CHAR_VALUES = calculateCodeCharValues();
+
+    /**
+     * 十六进制编码的经度字符表[层级][半球序号][经度列号]
+     * 半球序号 = (南纬 ? 2 : 0) + (西经 ? 1 : 0)，即NE=0、NW=1、SE=2、SW=3；行列号自本初子午线/赤道起算
+     */
+    public static final char[][][] HEX_LNG_CODE_CHARS = calculateHexCodeChars(0);
+
+    /**
+     * 十六进制编码的纬度字符表[层级][半球序号][纬度行号]
+     */
+    public static final char[][][] HEX_LAT_CODE_CHARS = calculateHexCodeChars(1);
+
+    /**
+     * 三级、六级Z序编码字符表[层级][半球序号][纬度行号][经度列号]
+     * Z序编码按地理方位自西向东、自南向北编号
+     */
+    public static final char[][][][] ZORDER_CODE_CHARS = calculateZOrderCodeChars();
+
+    /**
+     * 三级、六级Z序编码反查表[层级][半球序号][编码数字]，值为 纬度行号*经度列数+经度列号
+     */
+    public static final int[][][] ZORDER_CODE_INDEX = calculateZOrderCodeIndex();
+
     /**
      * 网格大小数据（单位：秒）
      */
@@ -61,6 +107,17 @@ public class BeiDouGridConstants {
             {0.00048828125, 0.00048828125} // 第10级
     };
 
+    /**
+     * 网格尺寸数组[层级][0:经度, 1:纬度]，单位为1/2048秒（即10级网格边长）
+     * 各级尺寸均为该单位的整数倍，可用整数精确累加网格角点坐标
+     */
+    public static final long[][] GRID_SIZES_UNITS = calculateGridSizesUnits();
+
+    /**
+     * 每度对应的网格尺寸单位数（1/2048秒），网格尺寸单位换算为度的除数
+     */
+    public static final double UNITS_PER_DEGREE = 2048.0 * 3600;
+
     /**
      * 各级网格编码长度
      */
@@ -129,6 +186,13 @@ public class BeiDouGridConstants {
             {1, 3}      // a11: 第1-3位
     };
 
+    /**
+     * 诊断日志开关，通过系统属性 -Dbeidou.grid.diagnostics=true 开启
+     * 编解码及范围查询热路径中的逐级/逐网格调试日志均受此开关控制；
+     * 该字段为static final，关闭时相关分支在JIT编译后被完全消除，不产生装箱和可变参数数组开销
+     */
+    public static final boolean DIAGNOSTICS_ENABLED = Boolean.getBoolean("beidou.grid.diagnostics");
+
     /**
      * 创建BigDecimal对象的辅助方法
      * 使用String构造器以避免精度问题
@@ -137,6 +201,116 @@ public class BeiDouGridConstants {
         return new BigDecimal(String.valueOf(val));
     }
 
+    /**
+     * 将各级网格度数尺寸换算为1e-10度为单位的整数
+     */
+    private static long[][] calculateGridSizesScaled() {
+        long[][] sizes = new long[GRID_SIZES_DEGREES.length][];
+        sizes[0] = new long[0];
+        for (int i = 1; i < GRID_SIZES_DEGREES.length; i++) {
+            sizes[i] = new long[]{
+                    GRID_SIZES_DEGREES[i][0].movePointRight(10).longValueExact(),
+                    GRID_SIZES_DEGREES[i][1].movePointRight(10).longValueExact()
+            };
+        }
+        return sizes;
+    }
+
+    /**
+     * 计算编码字符到数值的映射表
+     */
+    private static int[] calculateCodeCharValues() {
+        int[] values = new int[128];
+        for (char c = 0; c < values.length; c++) {
+            values[c] = Character.digit(c, 16);
+        }
+        return values;
+    }
+
+    /**
+     * 计算十六进制编码各半球下行列号对应的编码字符
+     *
+     * @param axis 0为经度（南半球翻转），1为纬度（西半球翻转）
+     */
+    private static char[][][] calculateHexCodeChars(int axis) {
+        char[][][] chars = new char[GRID_DIVISIONS.length][][];
+        for (int level = 0; level < chars.length; level++) {
+            if (HEX_FLIP_MAX[level].length == 0) {
+                chars[level] = new char[0][];
+                continue;
+            }
+            chars[level] = new char[4][GRID_DIVISIONS[level][axis]];
+            for (int hemisphere = 0; hemisphere < 4; hemisphere++) {
+                boolean flip = axis == 0 ? (hemisphere & 2) != 0 : (hemisphere & 1) != 0;
+                for (int i = 0; i < chars[level][hemisphere].length; i++) {
+                    int digit = flip ? HEX_FLIP_MAX[level][axis] - i : i;
+                    chars[level][hemisphere][i] = Character.toUpperCase(Character.forDigit(digit, 16));
+                }
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * 计算三级、六级各半球下行列号对应的Z序编码字符
+     */
+    private static char[][][][] calculateZOrderCodeChars() {
+        char[][][][] chars = new char[GRID_DIVISIONS.length][][][];
+        for (int level = 0; level < chars.length; level++) {
+            if (level != 3 && level != 6) {
+                chars[level] = new char[0][][];
+                continue;
+            }
+            int cols = GRID_DIVISIONS[level][0];
+            int rows = GRID_DIVISIONS[level][1];
+            chars[level] = new char[4][rows][cols];
+            for (int hemisphere = 0; hemisphere < 4; hemisphere++) {
+                boolean south = (hemisphere & 2) != 0;
+                boolean west = (hemisphere & 1) != 0;
+                for (int row = 0; row < rows; row++) {
+                    for (int col = 0; col < cols; col++) {
+                        int z = (south ? rows - 1 - row : row) * cols + (west ? cols - 1 - col : col);
+                        chars[level][hemisphere][row][col] = (char) ('0' + z);
+                    }
+                }
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * 由Z序编码字符表计算反查表
+     */
+    private static int[][][] calculateZOrderCodeIndex() {
+        int[][][] index = new int[ZORDER_CODE_CHARS.length][][];
+        for (int level = 0; level < index.length; level++) {
+            char[][][] chars = ZORDER_CODE_CHARS[level];
+            index[level] = new int[chars.length][];
+            for (int hemisphere = 0; hemisphere < chars.length; hemisphere++) {
+                int cols = chars[hemisphere][0].length;
+                index[level][hemisphere] = new int[chars[hemisphere].length * cols];
+                for (int row = 0; row < chars[hemisphere].length; row++) {
+                    for (int col = 0; col < cols; col++) {
+                        index[level][hemisphere][chars[hemisphere][row][col] - '0'] = row * cols + col;
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 将各级网格秒数尺寸换算为以1/2048秒为单位的整数
+     */
+    private static long[][] calculateGridSizesUnits() {
+        long[][] sizes = new long[GRID_SIZES_SECONDS.length][];
+        sizes[0] = new long[0];
+        for (int i = 1; i < GRID_SIZES_SECONDS.length; i++) {
+            sizes[i] = new long[]{(long) (GRID_SIZES_SECONDS[i][0] * 2048), (long) (GRID_SIZES_SECONDS[i][1] * 2048)};
+        }
+        return sizes;
+    }
+
     /**
      * 计算各级网格的长度
      * 根据赤道周长和各级网格的角度划分计算
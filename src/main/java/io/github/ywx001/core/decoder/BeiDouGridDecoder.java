@@ -1,25 +1,22 @@
 package io.github.ywx001.core.decoder;
 
+import io.github.ywx001.core.common.BeiDouGridCommonUtils;
 import io.github.ywx001.core.constants.BeiDouGridConstants;
 import io.github.ywx001.core.model.BeiDouGeoPoint;
-import io.github.ywx001.core.common.BeiDouGridCommonUtils;
+import io.github.ywx001.core.model.BeiDouGrid2D;
+import io.github.ywx001.core.common.BeiDouGridPackedCode;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * 北斗网格码解码器接口
  * 定义所有解码相关的操作
+ *
+ * <p>字符串解码直接逐字符解析各级行列号，并以1/2048秒为单位的整数累加网格角点坐标，
+ * 解码过程不创建中间字符串、数组或映射表。</p>
  */
 @Slf4j
 public class BeiDouGridDecoder {
 
-    // 缓存编码映射表，避免重复创建
-    private static final Map<String, int[][]> LEVEL3_ENCODING_MAP_CACHE = new ConcurrentHashMap<>();
-    private static final Map<String, int[][]> LEVEL6_ENCODING_MAP_CACHE = new ConcurrentHashMap<>();
-
     /**
      * 解码二维网格编码为地理点
      *
@@ -32,42 +29,10 @@ public class BeiDouGridDecoder {
         }
 
         int level = getCodeLevel2D(code);
-        Map<String, String> directions = getDirections(code);
-        BeiDouGridConstants.LngDirection lngDir = BeiDouGridConstants.LngDirection.valueOf(directions.get("lngDirection"));
-        BeiDouGridConstants.LatDirection latDir = BeiDouGridConstants.LatDirection.valueOf(directions.get("latDirection"));
-
-        // 调试日志：记录方向判断结果
-        log.debug("编码: {}, 经度方向: {}, 纬度方向: {}", code, lngDir, latDir);
-
-        int lngSign = lngDir == BeiDouGridConstants.LngDirection.E ? 1 : -1;
-        int latSign = latDir == BeiDouGridConstants.LatDirection.N ? 1 : -1;
-
-        // 调试日志：记录符号
-        log.debug("经度符号: {}, 纬度符号: {}", lngSign, latSign);
-
-        double lngInSec = 0;
-        double latInSec = 0;
-
-        for (int i = 1; i <= level; i++) {
-            double[] offsets = decodeN(code, i);
-            lngInSec += offsets[0];
-            latInSec += offsets[1];
-        }
-
-        // 调试日志：记录累计秒数
-        log.debug("累计秒数 - 经度: {}秒, 纬度: {}秒", lngInSec, latInSec);
-
-        double longitude = (lngInSec * lngSign) / 3600;
-        double latitude = (latInSec * latSign) / 3600;
-
-        // 调试日志：记录最终坐标
-        log.debug("最终坐标 - 经度: {}°, 纬度: {}°", longitude, latitude);
-
-        return BeiDouGeoPoint.builder()
-                .longitude(longitude)
-                .latitude(latitude)
-                .build();
+        long units = decodeUnits(code, false, level);
+        return toCornerPoint(code.charAt(0) == 'S', isWestCode(code, 1), units);
     }
+
     /**
      * 解码三维网格编码为包含地理点和高度信息的 Map
      *
@@ -81,8 +46,8 @@ public class BeiDouGridDecoder {
 
         int level = getCodeLevel3D(code);
 
-        String code2D = extract2DCode(code, level);
-        BeiDouGeoPoint beiDouGeoPoint = decode2D(code2D);
+        long units = decodeUnits(code, true, level);
+        BeiDouGeoPoint beiDouGeoPoint = toCornerPoint(code.charAt(0) == 'S', isWestCode(code, 2), units);
         double height = decode3DHeight(code, level);
 
         beiDouGeoPoint.setHeight(height);
@@ -90,6 +55,87 @@ public class BeiDouGridDecoder {
         return beiDouGeoPoint;
     }
 
+    /**
+     * 解码二维网格编码为网格经纬度范围，写入调用方提供的数组
+     * <p>解码过程不创建任何对象，适用于大量网格的渲染等场景。</p>
+     *
+     * @param code   二维网格编码
+     * @param bounds 输出数组，长度不小于4，依次写入{最小经度, 最大经度, 最小纬度, 最大纬度}
+     * @return 网格层级
+     * @throws IllegalArgumentException 如果位置码格式无效
+     */
+    public static int decode2DBounds(String code, double[] bounds) {
+        if (code == null || code.isEmpty()) {
+            throw new IllegalArgumentException("位置码不能为空");
+        }
+        validateBounds(bounds);
+
+        int level = getCodeLevel2D(code);
+        long units = decodeUnits(code, false, level);
+        fillBounds(code.charAt(0) == 'S', isWestCode(code, 1), level, units, bounds);
+        return level;
+    }
+
+    /**
+     * 解码二维网格编码为网格经纬度范围，写入调用方提供的可复用网格对象
+     *
+     * @param code 二维网格编码
+     * @param grid 输出网格对象，写入层级、经纬度范围及编码
+     * @throws IllegalArgumentException 如果位置码格式无效
+     */
+    public static void decode2DBounds(String code, BeiDouGrid2D grid) {
+        if (code == null || code.isEmpty()) {
+            throw new IllegalArgumentException("位置码不能为空");
+        }
+        if (grid == null) {
+            throw new IllegalArgumentException("输出网格对象不能为空");
+        }
+
+        int level = getCodeLevel2D(code);
+        long units = decodeUnits(code, false, level);
+        fillGrid(code.charAt(0) == 'S', isWestCode(code, 1), level, units, grid);
+        grid.setCode(code);
+    }
+
+    /**
+     * 解码二维打包码为网格经纬度范围，写入调用方提供的数组
+     *
+     * @param code   二维打包码，参见 {@link BeiDouGridPackedCode}
+     * @param bounds 输出数组，长度不小于4，依次写入{最小经度, 最大经度, 最小纬度, 最大纬度}
+     * @return 网格层级
+     */
+    public static int decode2DBounds(long code, double[] bounds) {
+        validateBounds(bounds);
+        int level = BeiDouGridPackedCode.getLevel(code);
+        fillBounds(BeiDouGridPackedCode.isSouth(code), BeiDouGridPackedCode.isWest(code), level, packedUnits(code, level), bounds);
+        return level;
+    }
+
+    /**
+     * 解码二维打包码为地理点
+     *
+     * @param code 二维打包码，参见 {@link BeiDouGridPackedCode}
+     * @return 解码后的地理点对象（所在网格左下角点，与 {@link #decode2D(String)} 定义一致）
+     */
+    public static BeiDouGeoPoint decode2D(long code) {
+        int level = BeiDouGridPackedCode.getLevel(code);
+        return toCornerPoint(BeiDouGridPackedCode.isSouth(code), BeiDouGridPackedCode.isWest(code), packedUnits(code, level));
+    }
+
+    /**
+     * 解码三维打包码为地理点
+     *
+     * @param code   经纬部分的二维打包码
+     * @param height 高度打包值
+     * @return 解码后的地理点对象（含网格底面高度）
+     */
+    public static BeiDouGeoPoint decode3D(long code, int height) {
+        BeiDouGeoPoint point = decode2D(code);
+        int heightSign = BeiDouGridPackedCode.isBelowGround(height) ? -1 : 1;
+        point.setHeight(computeHeight(BeiDouGridPackedCode.getHeightIndex(height)) * heightSign);
+        return point;
+    }
+
     /**
      * 获取二维网格码的层级
      */
@@ -122,271 +168,176 @@ public class BeiDouGridDecoder {
     }
 
     /**
-     * 获取经纬度方向
+     * 诊断辅助：返回每一级二维网格的行列索引（经度列、纬度行）。
+     * 行列号自本初子午线/赤道起算，仅用于定位问题，不影响编码逻辑。
      */
-    private static Map<String, String> getDirections(String code) {
-        Map<String, String> directions = new HashMap<>(2);
-
-        // 纬度方向判断
-        char latChar = code.charAt(0);
-        String latDirection = latChar == 'N' ? "N" : "S";
-        directions.put("latDirection", latDirection);
-
-        // 经度方向判断
-        int lngPart = Integer.parseInt(code.substring(1, 3));
-        String lngDirection = lngPart >= 31 ? "E" : "W";
-        directions.put("lngDirection", lngDirection);
-
-        // 调试日志：记录方向判断过程
-        log.debug("方向判断 - 编码首字符: {}, 纬度方向: {}, 经度部分: {}, 经度方向: {}",
-                 latChar, latDirection, lngPart, lngDirection);
-
-        return directions;
+    public static int[][] debugDecode2DLevels(String code) {
+        int level = getCodeLevel2D(code);
+        boolean south = code.charAt(0) == 'S';
+        boolean west = isWestCode(code, 1);
+        int[][] indices = new int[level][2];
+        int pos = 1;
+        for (int i = 1; i <= level; i++) {
+            long rowCol = decodeFragment(code, pos, i, south, west);
+            indices[i - 1][0] = (int) high(rowCol);
+            indices[i - 1][1] = (int) rowCol;
+            pos += BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i] - BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i - 1];
+        }
+        return indices;
     }
 
     /**
-     * 解码第n级网格码
+     * 逐级解析网格码并累加网格角点到本初子午线/赤道的距离
+     *
+     * @param code 二维或三维网格码
+     * @param is3D 是否为三维网格码（每级二维片段之后需跳过高度编码）
+     * @return 以1/2048秒为单位的距离，经度在高32位、纬度在低32位
      */
-    private static double[] decodeN(String code, int n) {
-        if (n < 1 || n > 10) {
-            throw new IllegalArgumentException("层级错误: " + n);
-        }
-
-        String fragment = getCodeFragment(code, n);
-        int[] rowCol = getRowAndCol(fragment, n, code);
-
-        int lng = rowCol[0];
-        int lat = rowCol[1];
+    private static long decodeUnits(String code, boolean is3D, int level) {
+        boolean south = code.charAt(0) == 'S';
+        int pos = is3D ? 2 : 1;
+        boolean west = isWestCode(code, pos);
 
-        // 调试日志：记录原始行列值
-        log.debug("第{}级网格解码 - 片段: {}, 原始行列: lng={}, lat={}", n, fragment, lng, lat);
-
-        if (n == 1) {
-            if (lng == 0) {
-                throw new IllegalArgumentException("暂不支持两极地区解码");
+        long lngUnits = 0;
+        long latUnits = 0;
+        for (int i = 1; i <= level; i++) {
+            long rowCol = decodeFragment(code, pos, i, south, west);
+            lngUnits += high(rowCol) * BeiDouGridConstants.GRID_SIZES_UNITS[i][0];
+            latUnits += (int) rowCol * BeiDouGridConstants.GRID_SIZES_UNITS[i][1];
+            pos += BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i] - BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i - 1];
+            if (is3D) {
+                pos += i == 1 ? 2 : 1;
             }
-            // 调试日志：记录第一级网格调整前的值
-            log.debug("第一级网格调整前: lng={}, 判断条件: lng>=31?{}", lng, lng >= 31);
-            lng = lng >= 31 ? lng - 31 : 30 - lng;
-            // 调试日志：记录调整后的值
-            log.debug("第一级网格调整后: lng={}", lng);
         }
-
-        double lngOffset = lng * BeiDouGridConstants.GRID_SIZES_SECONDS[n][0];
-        double latOffset = lat * BeiDouGridConstants.GRID_SIZES_SECONDS[n][1];
-
-        // 调试日志：记录最终偏移量
-        log.debug("第{}级网格偏移量: lngOffset={}秒, latOffset={}秒", n, lngOffset, latOffset);
-
-        return new double[]{lngOffset, latOffset};
+        return (lngUnits << 32) + latUnits;
     }
 
     /**
-     * 获取某一层级的位置码片段
+     * 解析第level级编码片段的行列号（自本初子午线/赤道起算）
+     *
+     * @return 经度列号在高32位、纬度行号在低32位
      */
-    private static String getCodeFragment(String code, int level) {
-        if (level == 0) {
-            return String.valueOf(code.charAt(0));
+    private static long decodeFragment(String code, int pos, int level, boolean south, boolean west) {
+        int lng;
+        int lat;
+        switch (level) {
+            case 1 -> {
+                int lngCode = digit(code, pos, 10) * 10 + digit(code, pos + 1, 10);
+                if (lngCode == 0) {
+                    throw new IllegalArgumentException("暂不支持两极地区解码");
+                }
+                lng = lngCode >= 31 ? lngCode - 31 : 30 - lngCode;
+                lat = charAt(code, pos + 2) - 'A';
+            }
+            case 3, 6 -> {
+                int[] zOrderIndex = BeiDouGridConstants.ZORDER_CODE_INDEX[level][BeiDouGridCommonUtils.getHemisphereIndex(south, west)];
+                int z = digit(code, pos, 10);
+                if (z >= zOrderIndex.length) {
+                    throw new IllegalArgumentException("无效的" + (level == 3 ? "三" : "六") + "级网格编码: " + z);
+                }
+                int cols = BeiDouGridConstants.GRID_DIVISIONS[level][0];
+                lng = zOrderIndex[z] % cols;
+                lat = zOrderIndex[z] / cols;
+            }
+            default -> {
+                // 与编码器规则一致：南半球翻转经度，西半球翻转纬度
+                int lngDigit = digit(code, pos, 16);
+                int latDigit = digit(code, pos + 1, 16);
+                lng = south ? BeiDouGridConstants.HEX_FLIP_MAX[level][0] - lngDigit : lngDigit;
+                lat = west ? BeiDouGridConstants.HEX_FLIP_MAX[level][1] - latDigit : latDigit;
+            }
         }
-        int start = BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[level - 1];
-        int end = BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[level];
-        return code.substring(start, end);
+        return ((long) lng << 32) + lat;
     }
 
     /**
-     * 诊断辅助：返回每一级二维网格的行列索引（经度列、纬度行）。
-     * 仅用于定位问题，不影响编码逻辑。
+     * 根据第一级经度编码判断是否为西经
      */
-    public static int[][] debugDecode2DLevels(String code) {
-        int level = getCodeLevel2D(code);
-        int[][] indices = new int[level][2];
-        for (int i = 1; i <= level; i++) {
-            String frag = getCodeFragment(code, i);
-            int[] rc = getRowAndCol(frag, i, code);
-            indices[i - 1][0] = rc[0];
-            indices[i - 1][1] = rc[1];
-        }
-        return indices;
+    private static boolean isWestCode(String code, int pos) {
+        return digit(code, pos, 10) * 10 + digit(code, pos + 1, 10) < 31;
     }
 
     /**
-     * 解析行列号
+     * 累加打包码各级行列号对应的距离
      */
-    private static int[] getRowAndCol(String codeFragment, int level, String code) {
-        if (codeFragment.length() != (BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[level] - BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[level - 1])) {
-            throw new IllegalArgumentException("编码片段长度错误: " + codeFragment);
-        }
-
-        int lng;
-        int lat;
-
-        switch (level) {
-            case 1:
-                lng = Integer.parseInt(codeFragment.substring(0, 2));
-                lat = codeFragment.charAt(2) - 'A';
-                break;
-            case 2:
-                lng = decodeLevel2(codeFragment, code, true);
-                lat = decodeLevel2(codeFragment, code, false);
-                break;
-            case 4:
-            case 5:
-                lng = decodeLevel4_5(codeFragment, code, true);
-                lat = decodeLevel4_5(codeFragment, code, false);
-                break;
-            case 7:
-            case 8:
-            case 9:
-            case 10:
-                lng = Integer.parseInt(codeFragment.substring(0, 1), 16);
-                lat = Integer.parseInt(codeFragment.substring(1, 2), 16);
-                break;
-            case 3:
-                int[] indices3 = decodeLevel3(codeFragment, code);
-                lng = indices3[0];
-                lat = indices3[1];
-                break;
-            case 6:
-                int[] indices6 = decodeLevel6(codeFragment, code);
-                lng = indices6[0];
-                lat = indices6[1];
-                break;
-            default:
-                throw new IllegalArgumentException("不支持的层级: " + level);
+    private static long packedUnits(long code, int level) {
+        long lngUnits = 0;
+        long latUnits = 0;
+        for (int i = 1; i <= level; i++) {
+            lngUnits += BeiDouGridPackedCode.getLngIndex(code, i) * BeiDouGridConstants.GRID_SIZES_UNITS[i][0];
+            latUnits += BeiDouGridPackedCode.getLatIndex(code, i) * BeiDouGridConstants.GRID_SIZES_UNITS[i][1];
         }
-
-        return new int[]{lng, lat};
+        return (lngUnits << 32) + latUnits;
     }
 
     /**
-     * 解码二级网格
+     * 由累加距离构造网格角点（靠近本初子午线和赤道的角点）
      */
-    private static int decodeLevel2(String codeFragment, String code, boolean isLng) {
-        int index = isLng ? 0 : 1;
-        int encoded = Integer.parseInt(codeFragment.substring(index, index + 1), 16);
-        if (code != null) {
-            String hemisphere = BeiDouGridCommonUtils.getHemisphereFromCode(code);
-
-            // 调试日志：记录二级网格解码过程
-            log.debug("二级网格解码 - 片段: {}, 半球: {}, 经度: {}, 原始编码: {}",
-                     codeFragment, hemisphere, isLng, encoded);
-
-            int result = switch (hemisphere) {
-                case "NE", "NW" -> encoded;
-                case "SE", "SW" -> isLng ? 11 - encoded : 7 - encoded;
-                default -> encoded;
-            };
-
-            log.debug("二级网格解码结果: {}", result);
-            return result;
-        }
-        return encoded;
+    private static BeiDouGeoPoint toCornerPoint(boolean south, boolean west, long units) {
+        int latUnits = (int) units;
+        long lngUnits = high(units);
+        return BeiDouGeoPoint.builder()
+                .longitude((west ? -lngUnits : lngUnits) / BeiDouGridConstants.UNITS_PER_DEGREE)
+                .latitude((south ? -latUnits : latUnits) / BeiDouGridConstants.UNITS_PER_DEGREE)
+                .build();
     }
 
     /**
-     * 解码四级/五级网格
+     * 由累加距离计算网格经纬度范围
      */
-    private static int decodeLevel4_5(String codeFragment, String code, boolean isLng) {
-        int index = isLng ? 0 : 1;
-        int encoded = Integer.parseInt(codeFragment.substring(index, index + 1), 16);
-        if (code != null) {
-            String hemisphere = BeiDouGridCommonUtils.getHemisphereFromCode(code);
-
-            // 调试日志：记录四级/五级网格解码过程
-            log.debug("四级/五级网格解码 - 片段: {}, 半球: {}, 经度: {}, 原始编码: {}",
-                     codeFragment, hemisphere, isLng, encoded);
-
-            int result = switch (hemisphere) {
-                case "NE", "NW" -> encoded;
-                case "SE", "SW" -> 14 - encoded;
-                default -> encoded;
-            };
-
-            log.debug("四级/五级网格解码结果: {}", result);
-            return result;
-        }
-        return encoded;
+    private static void fillBounds(boolean south, boolean west, int level, long units, double[] bounds) {
+        int latUnits = (int) units;
+        long lngUnits = high(units);
+        long lngEnd = lngUnits + BeiDouGridConstants.GRID_SIZES_UNITS[level][0];
+        long latEnd = latUnits + BeiDouGridConstants.GRID_SIZES_UNITS[level][1];
+        bounds[0] = (west ? -lngEnd : lngUnits) / BeiDouGridConstants.UNITS_PER_DEGREE;
+        bounds[1] = (west ? -lngUnits : lngEnd) / BeiDouGridConstants.UNITS_PER_DEGREE;
+        bounds[2] = (south ? -latEnd : latUnits) / BeiDouGridConstants.UNITS_PER_DEGREE;
+        bounds[3] = (south ? -latUnits : latEnd) / BeiDouGridConstants.UNITS_PER_DEGREE;
     }
 
     /**
-     * 解码三级网格
+     * 由累加距离填充网格对象的层级和经纬度范围
      */
-    private static int[] decodeLevel3(String codeFragment, String code) {
-        int n = Integer.parseInt(codeFragment);
-        int[] indices = new int[2];
-
-        if (code != null) {
-            String hemisphere = BeiDouGridCommonUtils.getHemisphereFromCode(code);
-            int[][] encodingMap = getLevel3EncodingMap(hemisphere);
-            boolean found = false;
-
-            for (int i = 0; i < encodingMap.length && !found; i++) {
-                for (int j = 0; j < encodingMap[i].length; j++) {
-                    if (encodingMap[i][j] == n) {
-                        indices[0] = j;
-                        indices[1] = i;
-                        found = true;
-                        break;
-                    }
-                }
-            }
-
-            if (!found) {
-                throw new IllegalArgumentException("无效的三级网格编码: " + n);
-            }
-        } else {
-            if (n <= 1) {
-                indices[0] = n;
-                indices[1] = 0;
-            } else if (n <= 3) {
-                indices[0] = n - 2;
-                indices[1] = 1;
-            } else {
-                indices[0] = n - 4;
-                indices[1] = 2;
-            }
-        }
-
-        return indices;
+    private static void fillGrid(boolean south, boolean west, int level, long units, BeiDouGrid2D grid) {
+        int latUnits = (int) units;
+        long lngUnits = high(units);
+        long lngEnd = lngUnits + BeiDouGridConstants.GRID_SIZES_UNITS[level][0];
+        long latEnd = latUnits + BeiDouGridConstants.GRID_SIZES_UNITS[level][1];
+        grid.setLevel(level);
+        grid.setMinLongitude((west ? -lngEnd : lngUnits) / BeiDouGridConstants.UNITS_PER_DEGREE);
+        grid.setMaxLongitude((west ? -lngUnits : lngEnd) / BeiDouGridConstants.UNITS_PER_DEGREE);
+        grid.setMinLatitude((south ? -latEnd : latUnits) / BeiDouGridConstants.UNITS_PER_DEGREE);
+        grid.setMaxLatitude((south ? -latUnits : latEnd) / BeiDouGridConstants.UNITS_PER_DEGREE);
     }
 
     /**
-     * 解码六级网格
+     * 取出高32位与低32位（有符号）组合值中的高32位部分
      */
-    private static int[] decodeLevel6(String codeFragment, String code) {
-        int n = Integer.parseInt(codeFragment);
-        int[] indices = new int[2];
-
-        if (code != null) {
-            String hemisphere = BeiDouGridCommonUtils.getHemisphereFromCode(code);
-            int[][] encodingMap = getLevel6EncodingMap(hemisphere);
-            boolean found = false;
-
-            for (int i = 0; i < encodingMap.length && !found; i++) {
-                for (int j = 0; j < encodingMap[i].length; j++) {
-                    if (encodingMap[i][j] == n) {
-                        indices[0] = j;
-                        indices[1] = i;
-                        found = true;
-                        break;
-                    }
-                }
-            }
+    private static long high(long value) {
+        return (value - (int) value) >> 32;
+    }
 
-            if (!found) {
-                throw new IllegalArgumentException("无效的六级网格编码: " + n);
-            }
-        } else {
-            if (n <= 1) {
-                indices[0] = n;
-                indices[1] = 0;
-            } else {
-                indices[0] = n - 2;
-                indices[1] = 1;
-            }
+    private static void validateBounds(double[] bounds) {
+        if (bounds == null || bounds.length < 4) {
+            throw new IllegalArgumentException("输出数组长度不能小于4");
         }
+    }
 
-        return indices;
+    private static char charAt(String code, int pos) {
+        if (pos >= code.length()) {
+            throw new IllegalArgumentException("网格码长度错误: " + code);
+        }
+        return code.charAt(pos);
+    }
+
+    private static int digit(String code, int pos, int radix) {
+        char c = charAt(code, pos);
+        int value = c < BeiDouGridConstants.CODE_CHAR_VALUES.length ? BeiDouGridConstants.CODE_CHAR_VALUES[c] : -1;
+        if (value < 0 || value >= radix) {
+            throw new IllegalArgumentException("网格码包含非法字符: " + code);
+        }
+        return value;
     }
 
     /**
@@ -426,68 +377,35 @@ public class BeiDouGridDecoder {
 
         for (int i = 1; i <= level; i++) {
             // 跳过二维编码部分
-            int level2DLength = BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i] - BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i - 1];
-            codeIndex += level2DLength;
-
-            // 获取当前级别的高度编码
-            int heightCodeLength = (i == 1) ? 2 : 1;
-            String heightCodeStr = code.substring(codeIndex, codeIndex + heightCodeLength);
-            codeIndex += heightCodeLength;
+            codeIndex += BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i] - BeiDouGridConstants.CODE_LENGTH_AT_LEVEL[i - 1];
 
-            // 解析高度编码值
+            // 解析高度编码值，第一级为2位十进制数表示6位二进制值
             int heightIndex;
             if (i == 1) {
-                // 第一级特殊处理：2位十进制数表示6位二进制值
-                heightIndex = Integer.parseInt(heightCodeStr, 10);
+                heightIndex = digit(code, codeIndex, 10) * 10 + digit(code, codeIndex + 1, 10);
+                codeIndex += 2;
             } else {
-                int radix = BeiDouGridConstants.ELEVATION_ENCODING[i][1];
-                heightIndex = Integer.parseInt(heightCodeStr, radix);
+                heightIndex = digit(code, codeIndex, BeiDouGridConstants.ELEVATION_ENCODING[i][1]);
+                codeIndex += 1;
             }
 
-            // 按照标准将编码值放置到正确的位位置
+            // 按照标准将编码值放置到正确的位位置（从第1位开始计数）
             int[] bitRange = BeiDouGridConstants.HEIGHT_BIT_RANGES[i];
-            int startBit = bitRange[0];
-
-            // 将heightIndex的各位设置到n的相应位置（从第1位开始计数）
-            for (int bit = 0; bit < (bitRange[1] - bitRange[0] + 1); bit++) {
-                if (((heightIndex >> bit) & 1) == 1) {
-                    n |= (1 << (startBit - 1 + bit));
-                }
-            }
+            int mask = (1 << (bitRange[1] - bitRange[0] + 1)) - 1;
+            n |= (heightIndex & mask) << (bitRange[0] - 1);
         }
 
-        // 使用标准逆公式计算高度：H = (1 + θ0)^(n*θ/θ0) * r0 - r0
-        double theta = Math.PI / 180 / 60 / 60 / 2048;  // theta = π/180/3600/2048
-        double theta0 = Math.PI / 180;                  // theta0 = π/180
-
-        double height = Math.pow(1 + theta0, n * theta / theta0) * BeiDouGridConstants.EARTH_RADIUS - BeiDouGridConstants.EARTH_RADIUS;
-
-        return height * heightSign;
+        return computeHeight(n) * heightSign;
     }
 
     /**
-     * 获取三级网格编码映射表
+     * 由高度索引n计算网格底面高度（绝对值）
      */
-    private static int[][] getLevel3EncodingMap(String hemisphere) {
-        return LEVEL3_ENCODING_MAP_CACHE.computeIfAbsent(hemisphere, key -> switch (key) {
-            case "NW" -> new int[][]{{1, 0}, {3, 2}, {5, 4}};
-            case "NE" -> new int[][]{{0, 1}, {2, 3}, {4, 5}};
-            case "SW" -> new int[][]{{5, 4}, {3, 2}, {1, 0}};
-            case "SE" -> new int[][]{{4, 5}, {2, 3}, {0, 1}};
-            default -> new int[][]{{0, 1}, {2, 3}, {4, 5}};
-        });
-    }
+    private static double computeHeight(int n) {
+        // 使用标准逆公式计算高度：H = (1 + θ0)^(n*θ/θ0) * r0 - r0
+        double theta = Math.PI / 180 / 60 / 60 / 2048;  // theta = π/180/3600/2048
+        double theta0 = Math.PI / 180;                  // theta0 = π/180
 
-    /**
-     * 获取六级网格编码映射表
-     */
-    private static int[][] getLevel6EncodingMap(String hemisphere) {
-        return LEVEL6_ENCODING_MAP_CACHE.computeIfAbsent(hemisphere, key -> switch (key) {
-            case "NW" -> new int[][]{{1, 0}, {3, 2}};
-            case "NE" -> new int[][]{{0, 1}, {2, 3}};
-            case "SW" -> new int[][]{{3, 2}, {1, 0}};
-            case "SE" -> new int[][]{{2, 3}, {0, 1}};
-            default -> new int[][]{{0, 1}, {2, 3}};
-        });
+        return Math.pow(1 + theta0, n * theta / theta0) * BeiDouGridConstants.EARTH_RADIUS - BeiDouGridConstants.EARTH_RADIUS;
     }
 }
@@ -3,12 +3,13 @@ package io.github.ywx001.core.encoder;
 import io.github.ywx001.core.constants.BeiDouGridConstants;
 import io.github.ywx001.core.model.BeiDouGeoPoint;
 import io.github.ywx001.core.common.BeiDouGridCommonUtils;
+import io.github.ywx001.core.common.BeiDouGridPackedCode;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * 北斗网格码编码器
@@ -17,12 +18,20 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class BeiDouGridEncoder {
 
-    // 缓存编码映射表，避免重复创建
-    private static final Map<String, int[][]> LEVEL3_ENCODING_MAP_CACHE = new ConcurrentHashMap<>();
-    private static final Map<String, int[][]> LEVEL6_ENCODING_MAP_CACHE = new ConcurrentHashMap<>();
+    /**
+     * 并行批量编码的最小分片大小，避免任务调度开销超过编码本身
+     */
+    private static final int PARALLEL_MIN_CHUNK = 8192;
+
+    /**
+     * 并行批量编码时每个工作线程的目标分片数
+     */
+    private static final int PARALLEL_CHUNKS_PER_THREAD = 4;
 
     /**
      * 对一个经纬度坐标进行二维编码
+     * <p>使用以1e-10度为单位的整数运算逐级求行列号，结果与 {@link #encode2DReference} 逐字符一致；
+     * 仅在参考实现会产生越界编码的边界情况下回退到参考实现。</p>
      *
      * @param point 经纬度坐标，使用小数形式（正负号表示方向）
      * @param level 要编码到第几级，范围1-10
@@ -30,6 +39,28 @@ public class BeiDouGridEncoder {
      */
     public static String encode2D(BeiDouGeoPoint point, Integer level) {
         validateEncodeParameters(point, level);
+        double longitude = point.getLongitude();
+        double latitude = point.getLatitude();
+        validatePackedParameters(longitude, latitude, level);
+        checkPolar(latitude);
+
+        long packed = encodeScaled(longitude, latitude, level, true);
+        if (packed != BeiDouGridPackedCode.INVALID) {
+            return BeiDouGridPackedCode.toCode2D(packed);
+        }
+        return encode2DReference(point, level);
+    }
+
+    /**
+     * 对一个经纬度坐标进行二维编码（基于BigDecimal的参考实现）
+     * <p>{@link #encode2D} 的编码结果以本方法为准，保留用于边界情况回退及一致性校验。</p>
+     *
+     * @param point 经纬度坐标，使用小数形式（正负号表示方向）
+     * @param level 要编码到第几级，范围1-10
+     * @return 北斗二维网格位置码
+     */
+    public static String encode2DReference(BeiDouGeoPoint point, Integer level) {
+        validateEncodeParameters(point, level);
 
         // 记录第n级网格的定位角点经纬度
         BigDecimal baseLng = BigDecimal.ZERO;
@@ -37,6 +68,7 @@ public class BeiDouGridEncoder {
 
         // 获取半球信息，用于网格码方向转换
         String hemisphere = BeiDouGridCommonUtils.getHemisphere(point);
+        int hemisphereIndex = BeiDouGridCommonUtils.getHemisphereIndex(hemisphere.charAt(0) == 'S', hemisphere.charAt(1) == 'W');
 
         // 存储结果，以半球纬度方向开头
         StringBuilder resCode = new StringBuilder().append(hemisphere.charAt(0));
@@ -72,7 +104,7 @@ public class BeiDouGridEncoder {
                 }
                 baseLat = baseLat.add(new BigDecimal(latP).multiply(latSize));
 
-                resCode.append(encodeFragment(i, lngP + 31, latP, hemisphere));
+                appendFragment(resCode, i, lngP + 31, latP, hemisphereIndex);
 
                 // 从第二级开始使用绝对值
                 latitude = latitude.abs();
@@ -81,7 +113,7 @@ public class BeiDouGridEncoder {
                 // 更新基准点坐标
                 baseLng = baseLng.add(new BigDecimal(lngP).multiply(lngSize));
                 baseLat = baseLat.add(new BigDecimal(latP).multiply(latSize));
-                resCode.append(encodeFragment(i, lngP, latP, hemisphere));
+                appendFragment(resCode, i, lngP, latP, hemisphereIndex);
             }
         }
 
@@ -100,15 +132,8 @@ public class BeiDouGridEncoder {
             throw new IllegalArgumentException("编码级别必须在1-10之间");
         }
 
-        // 计算高度编码的数学参数
-        double theta = Math.PI / 180 / 60 / 60 / 2048;  // theta = π/180/3600/2048
-        double theta0 = Math.PI / 180;                  // theta0 = π/180
-
         // 计算高度编码的值
-        int n = (int) Math.floor(
-                (theta0 / theta) *
-                        (Math.log((height + BeiDouGridConstants.EARTH_RADIUS) / BeiDouGridConstants.EARTH_RADIUS) / Math.log(1 + theta0))
-        );
+        int n = computeHeightIndex(height);
 
         // 确定高度方向编码（0表示正，1表示负）
         String signCode = n < 0 ? "1" : "0";
@@ -131,15 +156,8 @@ public class BeiDouGridEncoder {
     public static String encode3D(BeiDouGeoPoint point, Integer level) {
         validateEncodeParameters(point, level);
 
-        // 计算高度编码的数学参数
-        double theta = Math.PI / 180 / 60 / 60 / 2048;  // theta = π/180/3600/2048
-        double theta0 = Math.PI / 180;                  // theta0 = π/180
-
         // 计算高度编码的值
-        int n = (int) Math.floor(
-                (theta0 / theta) *
-                        (Math.log((point.getHeight() + BeiDouGridConstants.EARTH_RADIUS) / BeiDouGridConstants.EARTH_RADIUS) / Math.log(1 + theta0))
-        );
+        int n = computeHeightIndex(point.getHeight());
 
         // 确定高度方向编码（0表示正，1表示负）
         String signCode = n < 0 ? "1" : "0";
@@ -151,6 +169,7 @@ public class BeiDouGridEncoder {
         // 获取半球信息，用于网格码方向转换
         String hemisphere = BeiDouGridCommonUtils.getHemisphere(point);
         String latDirection = String.valueOf(hemisphere.charAt(0));
+        int hemisphereIndex = BeiDouGridCommonUtils.getHemisphereIndex(hemisphere.charAt(0) == 'S', hemisphere.charAt(1) == 'W');
 
         // 构建结果
         StringBuilder result = new StringBuilder();
@@ -170,8 +189,6 @@ public class BeiDouGridEncoder {
 
         // 逐级编码
         for (int i = 1; i <= level; i++) {
-            String fragment2D;
-
             if (i == 1) {
                 // 第一级特殊处理
                 int lngIndex = (int) Math.floor(lngInSec / BeiDouGridConstants.GRID_SIZES_SECONDS[i][0]);
@@ -181,15 +198,15 @@ public class BeiDouGridEncoder {
                 lngOffset = (lngIndex >= 0 ? lngIndex : -lngIndex - 1) * BeiDouGridConstants.GRID_SIZES_SECONDS[i][0];
                 latOffset = latIndex * BeiDouGridConstants.GRID_SIZES_SECONDS[i][1];
 
-                // 生成二维编码片段
-                fragment2D = encodeFragment(i, lngIndex + 31, latIndex, BeiDouGridCommonUtils.getHemisphere(point));
+                // 添加二维编码片段
+                appendFragment(result, i, lngIndex + 31, latIndex, hemisphereIndex);
             } else {
                 // 其他级别 - 使用绝对值的差值计算索引
                 int lngIndex = (int) Math.floor((Math.abs(lngInSec) - lngOffset) / BeiDouGridConstants.GRID_SIZES_SECONDS[i][0]);
                 int latIndex = (int) Math.floor((Math.abs(latInSec) - latOffset) / BeiDouGridConstants.GRID_SIZES_SECONDS[i][1]);
 
                 // 调试日志：记录第三级网格索引计算
-                if (i == 3) {
+                if (BeiDouGridConstants.DIAGNOSTICS_ENABLED && i == 3) {
                     log.debug("L3索引诊断: lngInSec={}, lngOffset={}, gridSizeLng={}, lngIndex={}",
                             Math.abs(lngInSec), lngOffset, BeiDouGridConstants.GRID_SIZES_SECONDS[i][0], lngIndex);
                     log.debug("L3索引诊断: latInSec={}, latOffset={}, gridSizeLat={}, latIndex={}",
@@ -200,15 +217,10 @@ public class BeiDouGridEncoder {
                 lngOffset += lngIndex * BeiDouGridConstants.GRID_SIZES_SECONDS[i][0];
                 latOffset += latIndex * BeiDouGridConstants.GRID_SIZES_SECONDS[i][1];
 
-                // 生成二维编码片段
-                fragment2D = encodeFragment(i, lngIndex, latIndex, BeiDouGridCommonUtils.getHemisphere(point));
-
-
+                // 添加二维编码片段
+                appendFragment(result, i, lngIndex, latIndex, hemisphereIndex);
             }
 
-            // 添加二维编码片段
-            result.append(fragment2D);
-
             // 添加高度编码片段
             int bits = BeiDouGridConstants.ELEVATION_ENCODING[i][0];
             int radix = BeiDouGridConstants.ELEVATION_ENCODING[i][1];
@@ -233,138 +245,462 @@ public class BeiDouGridEncoder {
     }
 
     /**
-     * 验证编码参数
+     * 对一个经纬度坐标进行二维编码，返回打包码
+     * <p>全程使用以1e-10度为单位的整数运算，不创建任何对象，结果与 {@link #encode2D} 的网格划分一致。
+     * 坐标落在网格尺寸舍入误差造成的缝隙中时，行列号取该级最大值；西经整6度经线与东经一样按绝对值归入远离本初子午线的网格。</p>
+     *
+     * @param longitude 经度（-180 ~ 180）
+     * @param latitude  纬度（-90 ~ 90）
+     * @param level     要编码到第几级，范围1-10
+     * @return 二维打包码，参见 {@link BeiDouGridPackedCode}
      */
-    private static void validateEncodeParameters(BeiDouGeoPoint point, Integer level) {
-        if (point == null) {
-            throw new IllegalArgumentException("坐标点不能为空");
+    public static long encode2DPacked(double longitude, double latitude, int level) {
+        validatePackedParameters(longitude, latitude, level);
+        checkPolar(latitude);
+        return encodeScaled(longitude, latitude, level, false);
+    }
+
+    /**
+     * 二维编码的整数运算核心，坐标换算为以1e-10度为单位的整数后逐级求行列号
+     * <p>网格尺寸与GRID_SIZES_DEGREES相同（保留10位小数），且基准点均为尺寸的整数倍，
+     * 因此对换算后的整数向下取整与BigDecimal精确除法的结果相同。</p>
+     *
+     * @param strict 为true时遇到参考实现会产生越界编码的情况返回INVALID，否则将行列号限制在合法范围内
+     * @return 二维打包码
+     */
+    private static long encodeScaled(double longitude, double latitude, int level, boolean strict) {
+        double absLng = Math.abs(longitude);
+        long lngUnits = floorScaled(absLng);
+        long latUnits = floorScaled(Math.abs(latitude));
+        boolean south = latitude < 0;
+        boolean west = longitude < 0;
+
+        // 参考实现对西经整6度经线的第一级列号少计1，导致第二级列号越界
+        if (strict && west && lngUnits % BeiDouGridConstants.GRID_SIZES_SCALED[1][0] == 0 && isScaledExact(absLng)) {
+            return BeiDouGridPackedCode.INVALID;
         }
 
-        if (level == null || level < 1 || level > 10) {
+        long code = BeiDouGridPackedCode.INVALID;
+        long baseLng = 0;
+        long baseLat = 0;
+        for (int i = 1; i <= level; i++) {
+            long lngSize = BeiDouGridConstants.GRID_SIZES_SCALED[i][0];
+            long latSize = BeiDouGridConstants.GRID_SIZES_SCALED[i][1];
+            long lngP = (lngUnits - baseLng) / lngSize;
+            long latP = (latUnits - baseLat) / latSize;
+            int maxLng = maxLngIndex(i);
+            int maxLat = BeiDouGridConstants.GRID_DIVISIONS[i][1] - 1;
+            if (lngP > maxLng || latP > maxLat) {
+                // 网格尺寸舍入为10位小数后，各级子网格之和可能小于父网格，坐标落在缝隙中
+                if (strict) {
+                    return BeiDouGridPackedCode.INVALID;
+                }
+                lngP = Math.min(lngP, maxLng);
+                latP = Math.min(latP, maxLat);
+            }
+            baseLng += lngP * lngSize;
+            baseLat += latP * latSize;
+            code = i == 1
+                    ? BeiDouGridPackedCode.level1(south, west, (int) lngP, (int) latP)
+                    : BeiDouGridPackedCode.child(code, (int) lngP, (int) latP);
+        }
+        return code;
+    }
+
+    /**
+     * 对一个经纬度坐标进行三维编码，返回经纬部分的打包码
+     * <p>与 {@link #encode3D} 的经纬部分采用相同的秒值运算，
+     * 配合 {@link #encode3DHeightPacked} 可通过 {@link BeiDouGridPackedCode#toCode3D} 还原为相同的三维网格码。</p>
+     *
+     * @param longitude 经度（-180 ~ 180）
+     * @param latitude  纬度（-90 ~ 90）
+     * @param level     要编码到第几级，范围1-10
+     * @return 经纬部分的二维打包码
+     */
+    public static long encode3DPlanePacked(double longitude, double latitude, int level) {
+        validatePackedParameters(longitude, latitude, level);
+        return encodeSeconds(longitude, latitude, level);
+    }
+
+    /**
+     * 三维编码经纬部分的秒值运算核心，与encode3D逐级计算方式相同，行列号限制在合法范围内
+     */
+    private static long encodeSeconds(double longitude, double latitude, int level) {
+        double lngInSec = Math.abs(longitude * 3600);
+        double latInSec = Math.abs(latitude) * 3600;
+
+        long code = BeiDouGridPackedCode.INVALID;
+        double lngOffset = 0;
+        double latOffset = 0;
+        for (int i = 1; i <= level; i++) {
+            double lngSize = BeiDouGridConstants.GRID_SIZES_SECONDS[i][0];
+            double latSize = BeiDouGridConstants.GRID_SIZES_SECONDS[i][1];
+            int lngP;
+            if (i == 1 && longitude < 0) {
+                // 西经第一级索引为负数，与encode3D一致换算为距本初子午线的列号
+                lngP = -(int) Math.floor(longitude * 3600 / lngSize) - 1;
+            } else {
+                lngP = (int) Math.floor((lngInSec - lngOffset) / lngSize);
+            }
+            int latP = (int) Math.floor((latInSec - latOffset) / latSize);
+            lngP = Math.max(0, Math.min(lngP, maxLngIndex(i)));
+            latP = Math.max(0, Math.min(latP, BeiDouGridConstants.GRID_DIVISIONS[i][1] - 1));
+            lngOffset += lngP * lngSize;
+            latOffset += latP * latSize;
+            code = i == 1
+                    ? BeiDouGridPackedCode.level1(latitude < 0, longitude < 0, lngP, latP)
+                    : BeiDouGridPackedCode.child(code, lngP, latP);
+        }
+        return code;
+    }
+
+    /**
+     * 对高度进行三维编码，返回高度打包值
+     *
+     * @param height 高度（单位：米）
+     * @param level  要编码到第几级，范围1-10
+     * @return 高度打包值，参见 {@link BeiDouGridPackedCode#height}
+     */
+    public static int encode3DHeightPacked(double height, int level) {
+        if (level < 1 || level > 10) {
             throw new IllegalArgumentException("编码级别必须在1-10之间");
         }
+        int n = computeHeightIndex(height);
+        return BeiDouGridPackedCode.height(n < 0, Math.abs(n), level);
     }
 
     /**
-     * 生成指定层级的编码片段
+     * 批量二维编码，结果以打包码写入调用方提供的数组
+     * <p>逐点结果与 {@link #encode2DPacked} 相同，参数只校验一次，循环内不创建任何对象。</p>
+     *
+     * @param lngs  经度数组
+     * @param lats  纬度数组，长度与经度数组相同
+     * @param level 要编码到第几级，范围1-10
+     * @param out   输出数组，长度不小于坐标个数，out[i]为第i个坐标的二维打包码
      */
-    private static String encodeFragment(int level, int lngCount, int latCount, String hemisphere) {
-        return switch (level) {
-            case 1 -> encodeLevel1(lngCount, latCount);
-            case 2 -> encodeLevel2(lngCount, latCount, hemisphere);
-            case 3 -> encodeLevel3(lngCount, latCount, hemisphere);
-            case 4, 5 -> encodeLevel4_5(lngCount, latCount, hemisphere);
-            case 6 -> encodeLevel6(lngCount, latCount, hemisphere);
-            case 7, 8, 9, 10 -> encodeLevel7_10(lngCount, latCount, hemisphere);
-            default -> throw new IllegalArgumentException("非法层级level: " + level);
-        };
+    public static void encode2DBatch(double[] lngs, double[] lats, int level, long[] out) {
+        validateBatchParameters(lngs, lats, null, level);
+        validateBatchOutput(lngs.length, out == null ? -1 : out.length);
+        encode2DBatchRange(lngs, lats, level, out, 0, lngs.length);
+    }
+
+    /**
+     * 批量三维编码，经纬部分与高度部分分别写入调用方提供的数组
+     * <p>逐点结果与 {@link #encode3DPlanePacked}、{@link #encode3DHeightPacked} 相同。</p>
+     *
+     * @param lngs      经度数组
+     * @param lats      纬度数组，长度与经度数组相同
+     * @param heights   高度数组（单位：米），长度与经度数组相同
+     * @param level     要编码到第几级，范围1-10
+     * @param planeOut  经纬部分输出数组，长度不小于坐标个数
+     * @param heightOut 高度部分输出数组，长度不小于坐标个数
+     */
+    public static void encode3DBatch(double[] lngs, double[] lats, double[] heights, int level, long[] planeOut, int[] heightOut) {
+        validateBatchParameters(lngs, lats, heights, level);
+        validateBatchOutput(lngs.length, planeOut == null ? -1 : planeOut.length);
+        validateBatchOutput(lngs.length, heightOut == null ? -1 : heightOut.length);
+        encode3DBatchRange(lngs, lats, heights, level, planeOut, heightOut, 0, lngs.length);
+    }
+
+    /**
+     * 使用公共ForkJoinPool并行批量二维编码
+     *
+     * @see #encode2DBatchParallel(double[], double[], int, long[], ForkJoinPool)
+     */
+    public static void encode2DBatchParallel(double[] lngs, double[] lats, int level, long[] out) {
+        encode2DBatchParallel(lngs, lats, level, out, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行批量二维编码
+     * <p>坐标数组按池的并行度自适应切分为若干区间，由fork-join任务分别编码，各点结果写入out的对应下标，
+     * 与 {@link #encode2DBatch} 结果完全相同。数据量较小时直接在调用线程中编码。</p>
+     *
+     * @param lngs  经度数组
+     * @param lats  纬度数组，长度与经度数组相同
+     * @param level 要编码到第几级，范围1-10
+     * @param out   输出数组，长度不小于坐标个数
+     * @param pool  执行编码任务的线程池
+     */
+    public static void encode2DBatchParallel(double[] lngs, double[] lats, int level, long[] out, ForkJoinPool pool) {
+        validateBatchParameters(lngs, lats, null, level);
+        validateBatchOutput(lngs.length, out == null ? -1 : out.length);
+        invokeBatch(new BatchEncodeTask(lngs, lats, null, level, out, null, 0, lngs.length, batchThreshold(lngs.length, pool)), pool);
+    }
+
+    /**
+     * 使用公共ForkJoinPool并行批量三维编码
+     *
+     * @see #encode3DBatchParallel(double[], double[], double[], int, long[], int[], ForkJoinPool)
+     */
+    public static void encode3DBatchParallel(double[] lngs, double[] lats, double[] heights, int level, long[] planeOut, int[] heightOut) {
+        encode3DBatchParallel(lngs, lats, heights, level, planeOut, heightOut, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行批量三维编码，切分方式与 {@link #encode2DBatchParallel(double[], double[], int, long[], ForkJoinPool)} 相同
+     *
+     * @param lngs      经度数组
+     * @param lats      纬度数组，长度与经度数组相同
+     * @param heights   高度数组（单位：米），长度与经度数组相同
+     * @param level     要编码到第几级，范围1-10
+     * @param planeOut  经纬部分输出数组，长度不小于坐标个数
+     * @param heightOut 高度部分输出数组，长度不小于坐标个数
+     * @param pool      执行编码任务的线程池
+     */
+    public static void encode3DBatchParallel(double[] lngs, double[] lats, double[] heights, int level,
+                                             long[] planeOut, int[] heightOut, ForkJoinPool pool) {
+        validateBatchParameters(lngs, lats, heights, level);
+        validateBatchOutput(lngs.length, planeOut == null ? -1 : planeOut.length);
+        validateBatchOutput(lngs.length, heightOut == null ? -1 : heightOut.length);
+        invokeBatch(new BatchEncodeTask(lngs, lats, heights, level, planeOut, heightOut, 0, lngs.length,
+                batchThreshold(lngs.length, pool)), pool);
+    }
+
+    /**
+     * 计算并行编码的分片阈值：每个工作线程约分得4个分片以平衡负载，且不小于最小分片大小
+     */
+    private static int batchThreshold(int count, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("线程池不能为空");
+        }
+        int chunks = pool.getParallelism() * PARALLEL_CHUNKS_PER_THREAD;
+        return Math.max(PARALLEL_MIN_CHUNK, (count + chunks - 1) / chunks);
+    }
+
+    /**
+     * 执行批量编码任务，数据量不超过一个分片时直接在调用线程中执行
+     */
+    private static void invokeBatch(BatchEncodeTask task, ForkJoinPool pool) {
+        if (task.to - task.from <= task.threshold) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    /**
+     * 并行批量编码任务，按区间二分直至不超过分片阈值
+     */
+    private static final class BatchEncodeTask extends RecursiveAction {
+        private final double[] lngs;
+        private final double[] lats;
+        private final double[] heights;
+        private final int level;
+        private final long[] planeOut;
+        private final int[] heightOut;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        BatchEncodeTask(double[] lngs, double[] lats, double[] heights, int level,
+                        long[] planeOut, int[] heightOut, int from, int to, int threshold) {
+            this.lngs = lngs;
+            this.lats = lats;
+            this.heights = heights;
+            this.level = level;
+            this.planeOut = planeOut;
+            this.heightOut = heightOut;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                if (heights == null) {
+                    encode2DBatchRange(lngs, lats, level, planeOut, from, to);
+                } else {
+                    encode3DBatchRange(lngs, lats, heights, level, planeOut, heightOut, from, to);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchEncodeTask(lngs, lats, heights, level, planeOut, heightOut, from, mid, threshold),
+                    new BatchEncodeTask(lngs, lats, heights, level, planeOut, heightOut, mid, to, threshold));
+        }
+    }
+
+    /**
+     * 批量二维编码[from, to)区间内的坐标
+     */
+    private static void encode2DBatchRange(double[] lngs, double[] lats, int level, long[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double lng = lngs[i];
+            double lat = lats[i];
+            validateCoordinate(lng, lat);
+            checkPolar(lat);
+            out[i] = encodeScaled(lng, lat, level, false);
+        }
+    }
+
+    /**
+     * 批量三维编码[from, to)区间内的坐标
+     */
+    private static void encode3DBatchRange(double[] lngs, double[] lats, double[] heights, int level,
+                                           long[] planeOut, int[] heightOut, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double lng = lngs[i];
+            double lat = lats[i];
+            validateCoordinate(lng, lat);
+            planeOut[i] = encodeSeconds(lng, lat, level);
+            int n = computeHeightIndex(heights[i]);
+            heightOut[i] = BeiDouGridPackedCode.height(n < 0, Math.abs(n), level);
+        }
     }
 
     /**
-     * 一级网格编码（标准图2）
+     * 验证批量编码的输入数组
      */
-    private static String encodeLevel1(int lngCount, int latCount) {
-        return String.format("%02d", lngCount) + (char) ('A' + latCount);
+    private static void validateBatchParameters(double[] lngs, double[] lats, double[] heights, int level) {
+        if (level < 1 || level > 10) {
+            throw new IllegalArgumentException("编码级别必须在1-10之间");
+        }
+        if (lngs == null || lats == null) {
+            throw new IllegalArgumentException("坐标数组不能为空");
+        }
+        if (lats.length != lngs.length || (heights != null && heights.length != lngs.length)) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
     }
 
     /**
-     * 二级网格编码（标准图3）
+     * 验证批量编码的输出数组长度
      */
-    private static String encodeLevel2(int lngCount, int latCount, String hemisphere) {
-        int[] adjusted = adjustCounts(lngCount, latCount, hemisphere, 11, 7);
-        return toHexPair(adjusted[0], adjusted[1]);
+    private static void validateBatchOutput(int count, int outLength) {
+        if (outLength < count) {
+            throw new IllegalArgumentException("输出数组长度不足: 需要" + count + "，实际" + Math.max(outLength, 0));
+        }
     }
 
     /**
-     * 三级网格Z序编码（标准图4）
+     * 计算高度索引n（按照GB/T 39409-2020标准高度剖分公式）
      */
-    private static String encodeLevel3(int lngCount, int latCount, String hemisphere) {
-        log.debug("L3编码输入: lngCount={}, latCount={}, hemisphere={}", lngCount, latCount, hemisphere);
-        int[][] encodingMap = getLevel3EncodingMap(hemisphere);
+    private static int computeHeightIndex(double height) {
+        // 计算高度编码的数学参数
+        double theta = Math.PI / 180 / 60 / 60 / 2048;  // theta = π/180/3600/2048
+        double theta0 = Math.PI / 180;                  // theta0 = π/180
+
+        return (int) Math.floor(
+                (theta0 / theta) *
+                        (Math.log((height + BeiDouGridConstants.EARTH_RADIUS) / BeiDouGridConstants.EARTH_RADIUS) / Math.log(1 + theta0))
+        );
+    }
 
-        // 调试：打印整个编码映射表
-        log.debug("L3编码映射表: {} hemisphere", hemisphere);
-        for (int i = 0; i < encodingMap.length; i++) {
-            log.debug("  行{}: [{}, {}]", i, encodingMap[i][0], encodingMap[i][1]);
+    /**
+     * 计算非负坐标值的十进制表示（与BigDecimal.valueOf一致）乘以1e10后向下取整的结果
+     * <p>若某个10位小数恰好舍入为该double，则十进制表示即为该小数；否则按double精确值取整，
+     * 恰好落在整数上时用fma判断乘积的舍入方向。</p>
+     */
+    private static long floorScaled(double value) {
+        double scaled = value * 1e10;
+        if (isScaledExact(value)) {
+            return (long) Math.rint(scaled);
+        }
+        double floor = Math.floor(scaled);
+        if (floor == scaled && Math.fma(value, 1e10, -scaled) < 0) {
+            floor -= 1;
         }
+        return (long) floor;
+    }
 
-        String result = String.valueOf(encodingMap[latCount][lngCount]);
-        log.debug("L3编码结果: encodingMap[{}][{}] = {}", latCount, lngCount, result);
-        return result;
+    /**
+     * 非负坐标值的十进制表示是否恰为1e-10度的整数倍（即不超过10位小数）
+     */
+    private static boolean isScaledExact(double value) {
+        return Math.rint(value * 1e10) / 1e10 == value;
     }
 
     /**
-     * 四级/五级网格编码（标准图5、6）
+     * 极地区域检查
      */
-    private static String encodeLevel4_5(int lngCount, int latCount, String hemisphere) {
-        int[] adjusted = adjustCounts(lngCount, latCount, hemisphere, 14, 14);
-        return toHexPair(adjusted[0], adjusted[1]);
+    private static void checkPolar(double latitude) {
+        if (Math.abs(latitude) >= 88) {
+            log.warn("极地区域编码尚未实现");
+            throw new UnsupportedOperationException("极地区域编码尚未实现");
+        }
     }
 
     /**
-     * 六级网格Z序编码（标准图7）
+     * 指定层级经度列号的最大值，第一级为单个半球内的列数
      */
-    private static String encodeLevel6(int lngCount, int latCount, String hemisphere) {
-        int[][] encodingMap = getLevel6EncodingMap(hemisphere);
-        return String.valueOf(encodingMap[latCount][lngCount]);
+    private static int maxLngIndex(int level) {
+        return (level == 1 ? BeiDouGridConstants.GRID_DIVISIONS[1][0] / 2 : BeiDouGridConstants.GRID_DIVISIONS[level][0]) - 1;
     }
 
     /**
-     * 七到十级网格编码（标准图8）
+     * 验证打包编码参数
      */
-    private static String encodeLevel7_10(int lngCount, int latCount, String hemisphere) {
-        int[] adjusted = adjustCounts(lngCount, latCount, hemisphere, 7, 7);
-        return toHexPair(adjusted[0], adjusted[1]);
+    private static void validatePackedParameters(double longitude, double latitude, int level) {
+        if (level < 1 || level > 10) {
+            throw new IllegalArgumentException("编码级别必须在1-10之间");
+        }
+        validateCoordinate(longitude, latitude);
     }
 
     /**
-     * 方向调整通用方法
-     * 根据半球信息调整经纬度网格索引
+     * 验证经纬度范围，校验规则与BeiDouGridCommonUtils.getHemisphere一致
      */
-    private static int[] adjustCounts(int lng, int lat, String hemisphere, int maxLng, int maxLat) {
-        return switch (hemisphere) {
-            case "NW" -> new int[]{lng, maxLat - lat};          // 经度递增，纬度递减
-            case "NE" -> new int[]{lng, lat};                   // 双递增
-            case "SW" -> new int[]{maxLng - lng, maxLat - lat}; // 双递减
-            case "SE" -> new int[]{maxLng - lng, lat};          // 经度递减，纬度递增
-            default -> new int[]{lng, lat};                   // 默认NE规则
-        };
+    private static void validateCoordinate(double longitude, double latitude) {
+        if (Double.isNaN(latitude) || latitude < -90 || latitude > 90) {
+            throw new IllegalArgumentException("纬度值无效，应为-90到90之间的数值");
+        }
+        if (Double.isNaN(longitude) || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("经度值无效，应为-180到180之间的数值");
+        }
     }
 
     /**
-     * 获取三级网格编码映射表
-     * 使用缓存避免重复创建
+     * 验证编码参数
      */
-    private static int[][] getLevel3EncodingMap(String hemisphere) {
-        return LEVEL3_ENCODING_MAP_CACHE.computeIfAbsent(hemisphere, key -> switch (key) {
-            case "NW" -> new int[][]{{1, 0}, {3, 2}, {5, 4}};
-            case "NE" -> new int[][]{{0, 1}, {2, 3}, {4, 5}};
-            case "SW" -> new int[][]{{5, 4}, {3, 2}, {1, 0}};
-            case "SE" -> new int[][]{{4, 5}, {2, 3}, {0, 1}};
-            default -> new int[][]{{0, 1}, {2, 3}, {4, 5}}; // 默认东北半球
-        });
+    private static void validateEncodeParameters(BeiDouGeoPoint point, Integer level) {
+        if (point == null) {
+            throw new IllegalArgumentException("坐标点不能为空");
+        }
+
+        if (level == null || level < 1 || level > 10) {
+            throw new IllegalArgumentException("编码级别必须在1-10之间");
+        }
     }
 
     /**
-     * 获取六级网格编码映射表
-     * 使用缓存避免重复创建
+     * 将指定层级的编码片段追加到结果中，字符直接取自 {@link BeiDouGridConstants} 中的编码字符表
+     *
+     * @param hemisphere 半球序号，见 {@link BeiDouGridCommonUtils#getHemisphereIndex}
      */
-    private static int[][] getLevel6EncodingMap(String hemisphere) {
-        return LEVEL6_ENCODING_MAP_CACHE.computeIfAbsent(hemisphere, key -> switch (key) {
-            case "NW" -> new int[][]{{1, 0}, {3, 2}};
-            case "NE" -> new int[][]{{0, 1}, {2, 3}};
-            case "SW" -> new int[][]{{3, 2}, {1, 0}};
-            case "SE" -> new int[][]{{2, 3}, {0, 1}};
-            default -> new int[][]{{0, 1}, {2, 3}}; // 默认东北半球
-        });
+    private static void appendFragment(StringBuilder result, int level, int lngCount, int latCount, int hemisphere) {
+        switch (level) {
+            case 1 -> result.append((char) ('0' + lngCount / 10))
+                    .append((char) ('0' + lngCount % 10))
+                    .append((char) ('A' + latCount));
+            case 3, 6 -> {
+                char code = BeiDouGridConstants.ZORDER_CODE_CHARS[level][hemisphere][latCount][lngCount];
+                if (BeiDouGridConstants.DIAGNOSTICS_ENABLED && level == 3) {
+                    log.debug("L3编码: lngCount={}, latCount={}, hemisphere={}, 结果={}", lngCount, latCount, hemisphere, code);
+                }
+                result.append(code);
+            }
+            case 2, 4, 5, 7, 8, 9, 10 -> {
+                appendHexDigit(result, BeiDouGridConstants.HEX_LNG_CODE_CHARS[level][hemisphere], lngCount,
+                        (hemisphere & 2) != 0, BeiDouGridConstants.HEX_FLIP_MAX[level][0]);
+                appendHexDigit(result, BeiDouGridConstants.HEX_LAT_CODE_CHARS[level][hemisphere], latCount,
+                        (hemisphere & 1) != 0, BeiDouGridConstants.HEX_FLIP_MAX[level][1]);
+            }
+            default -> throw new IllegalArgumentException("非法层级level: " + level);
+        }
     }
 
     /**
-     * 转换为十六进制对（如 3,A）
+     * 追加一位十六进制编码
+     * 坐标落在网格尺寸舍入误差造成的缝隙中时行列号可能越界，此时按翻转后的数值原样输出，与历史编码结果保持一致
      */
-    private static String toHexPair(int lng, int lat) {
-        return Integer.toHexString(lng).toUpperCase() +
-                Integer.toHexString(lat).toUpperCase();
+    private static void appendHexDigit(StringBuilder result, char[] chars, int count, boolean flip, int flipMax) {
+        if (count >= 0 && count < chars.length) {
+            result.append(chars[count]);
+        } else {
+            result.append(Integer.toHexString(flip ? flipMax - count : count).toUpperCase());
+        }
     }
 
     /**
@@ -0,0 +1,35 @@
+package io.github.ywx001.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 几何图形变化前后的网格覆盖差异
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeiDouGridCoverageDiff {
+    /**
+     * 新增的网格码：与新几何图形相交、不在原覆盖中
+     */
+    private Set<String> added = new HashSet<>();
+
+    /**
+     * 移除的网格码：在原覆盖中、与新几何图形不再相交
+     */
+    private Set<String> removed = new HashSet<>();
+
+    /**
+     * 覆盖是否没有变化
+     *
+     * @return 新增和移除的网格是否都为空，未设置（null）视为空
+     */
+    public boolean isEmpty() {
+        return (added == null || added.isEmpty()) && (removed == null || removed.isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.ywx001.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * 范围查询预算，任一限制达到时查询立即停止并返回已得到的部分结果
+ * 未设置的限制不生效
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeiDouGridQueryBudget {
+    /**
+     * 最大结果网格数
+     */
+    @Builder.Default
+    private long maxCells = Long.MAX_VALUE;
+
+    /**
+     * 最大访问网格数（做过空间关系判断或被枚举的网格），限制几何判断的总工作量
+     */
+    @Builder.Default
+    private long maxVisitedNodes = Long.MAX_VALUE;
+
+    /**
+     * 超时时间，单位：毫秒，自查询开始计时；0表示不限时
+     */
+    private long timeoutMillis;
+
+    /**
+     * 取消标志，返回true时查询停止；为null表示不可取消
+     */
+    private BooleanSupplier cancellation;
+
+    /**
+     * 因网格数或访问数超出预算而停止时，是否逐级降低目标级别重新查询，直到完整结果满足预算或降到1级
+     * 超时和取消不会触发降级
+     */
+    private boolean coarsen;
+}
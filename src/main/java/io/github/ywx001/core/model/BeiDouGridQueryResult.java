@@ -0,0 +1,70 @@
+package io.github.ywx001.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * 带预算的范围查询结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeiDouGridQueryResult {
+    /**
+     * 查询得到的网格码，查询未完成时为完整结果的子集
+     */
+    private Set<String> codes;
+
+    /**
+     * 结果网格级别，发生降级时小于请求的目标级别
+     */
+    private int level;
+
+    /**
+     * 查询结束原因
+     */
+    private StopReason stopReason;
+
+    /**
+     * 访问网格数
+     */
+    private long visitedNodes;
+
+    /**
+     * 查询是否完整完成
+     *
+     * @return 结果是否为该级别的完整结果
+     */
+    public boolean isComplete() {
+        return stopReason == StopReason.COMPLETED;
+    }
+
+    /**
+     * 查询结束原因
+     */
+    public enum StopReason {
+        /**
+         * 完整完成
+         */
+        COMPLETED,
+        /**
+         * 结果网格数达到预算
+         */
+        MAX_CELLS,
+        /**
+         * 访问网格数达到预算
+         */
+        MAX_VISITED_NODES,
+        /**
+         * 超时
+         */
+        DEADLINE,
+        /**
+         * 被取消
+         */
+        CANCELLED
+    }
+}
@@ -4,16 +4,27 @@ package io.github.ywx001.core.utils;
 import io.github.ywx001.core.common.BeiDouGrid2DRangeQuery;
 import io.github.ywx001.core.common.BeiDouGrid3DRangeQuery;
 import io.github.ywx001.core.common.BeiDouGridCommonUtils;
+import io.github.ywx001.core.common.BeiDouGridPackedCode;
+import io.github.ywx001.core.common.BeiDouGridPreparedGeometry;
+import io.github.ywx001.core.common.BeiDouGridProximityQuery;
+import io.github.ywx001.core.common.BeiDouGridQueryCache;
+import io.github.ywx001.core.common.BeiDouGridRegionCoverer;
 import io.github.ywx001.core.constants.BeiDouGridConstants;
 import io.github.ywx001.core.decoder.BeiDouGridDecoder;
 import io.github.ywx001.core.encoder.BeiDouGridEncoder;
 import io.github.ywx001.core.model.BeiDouGeoPoint;
+import io.github.ywx001.core.model.BeiDouGridCoverageDiff;
+import io.github.ywx001.core.model.BeiDouGridQueryBudget;
+import io.github.ywx001.core.model.BeiDouGridQueryResult;
 import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LineString;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * 北斗网格码工具类
@@ -100,6 +111,60 @@ public class BeiDouGridUtils {
         return encoder.encode3D(point, level);
     }
 
+    /**
+     * 批量二维编码，结果以打包码写入输出数组
+     *
+     * @param lngs  经度数组
+     * @param lats  纬度数组
+     * @param level 要编码到第几级，范围1-10
+     * @param out   输出数组，out[i]为第i个坐标的二维打包码
+     * @see io.github.ywx001.core.common.BeiDouGridPackedCode
+     */
+    public static void encode2DBatch(double[] lngs, double[] lats, int level, long[] out) {
+        BeiDouGridEncoder.encode2DBatch(lngs, lats, level, out);
+    }
+
+    /**
+     * 批量三维编码，经纬部分与高度部分分别写入输出数组
+     *
+     * @param lngs      经度数组
+     * @param lats      纬度数组
+     * @param heights   高度数组（单位：米）
+     * @param level     要编码到第几级，范围1-10
+     * @param planeOut  经纬部分输出数组
+     * @param heightOut 高度部分输出数组
+     * @see io.github.ywx001.core.common.BeiDouGridPackedCode
+     */
+    public static void encode3DBatch(double[] lngs, double[] lats, double[] heights, int level, long[] planeOut, int[] heightOut) {
+        BeiDouGridEncoder.encode3DBatch(lngs, lats, heights, level, planeOut, heightOut);
+    }
+
+    /**
+     * 使用公共ForkJoinPool并行批量二维编码，结果与 {@link #encode2DBatch} 相同
+     *
+     * @param lngs  经度数组
+     * @param lats  纬度数组
+     * @param level 要编码到第几级，范围1-10
+     * @param out   输出数组，out[i]为第i个坐标的二维打包码
+     */
+    public static void encode2DBatchParallel(double[] lngs, double[] lats, int level, long[] out) {
+        BeiDouGridEncoder.encode2DBatchParallel(lngs, lats, level, out);
+    }
+
+    /**
+     * 使用公共ForkJoinPool并行批量三维编码，结果与 {@link #encode3DBatch} 相同
+     *
+     * @param lngs      经度数组
+     * @param lats      纬度数组
+     * @param heights   高度数组（单位：米）
+     * @param level     要编码到第几级，范围1-10
+     * @param planeOut  经纬部分输出数组
+     * @param heightOut 高度部分输出数组
+     */
+    public static void encode3DBatchParallel(double[] lngs, double[] lats, double[] heights, int level, long[] planeOut, int[] heightOut) {
+        BeiDouGridEncoder.encode3DBatchParallel(lngs, lats, heights, level, planeOut, heightOut);
+    }
+
     /**
      * 对北斗二维网格位置码解码（所在网格西南角点，即左下角点）
      *
@@ -188,6 +253,55 @@ public class BeiDouGridUtils {
         return BeiDouGrid3DRangeQuery.generateChildGrids3D(parentGrid);
     }
 
+    /**
+     * 获取与二维网格相距不超过k步的同级网格（k环）
+     *
+     * 功能说明：
+     * 1. 一步指移动到8邻域中的任一网格，结果为以该网格为中心、边长2k+1个网格的方块，包含中心网格。
+     * 2. 跨越父网格、赤道和本初子午线时无需特殊处理，经度方向在180°经线处首尾相接，结果不重复。
+     *
+     * @param code 二维网格码（格式示例：N50J475）
+     * @param k    步数，不小于0
+     * @return 网格码列表，自南向北、自西向东排列
+     * @throws IllegalArgumentException 如果步数小于0
+     *
+     * @see BeiDouGridProximityQuery#kRing k环计算实现
+     */
+    public static List<String> getKRingGrids2D(String code, int k) {
+        long[] cells = BeiDouGridProximityQuery.kRing(BeiDouGridPackedCode.fromCode2D(code), k);
+        List<String> codes = new ArrayList<>(cells.length);
+        for (long cell : cells) {
+            codes.add(BeiDouGridPackedCode.toCode2D(cell));
+        }
+        return codes;
+    }
+
+    /**
+     * 获取二维网格的同级相邻网格
+     *
+     * 功能说明：
+     * 1. 直接对全球格网的行列号做加减，不经过解码再编码，可跨越父网格、赤道和本初子午线。
+     * 2. 经度方向在180°经线处首尾相接，纬度方向超出格网南北边界的相邻网格不返回。
+     *
+     * 使用场景：
+     * - 扩散分析、连通区域填充等需要遍历相邻网格的场景。
+     *
+     * @param code           二维网格码（格式示例：N50J475）
+     * @param includeCorners 是否包含共角网格：false返回4邻域，true返回8邻域
+     * @return 相邻网格码列表，依次为北、东、南、西，包含共角网格时再依次为东北、东南、西南、西北
+     *
+     * @see BeiDouGridPackedCode#neighbors 相邻网格计算实现
+     */
+    public static List<String> getNeighborGrids2D(String code, boolean includeCorners) {
+        long[] buffer = new long[8];
+        int count = BeiDouGridPackedCode.neighbors(BeiDouGridPackedCode.fromCode2D(code), includeCorners, buffer);
+        List<String> neighbors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            neighbors.add(BeiDouGridPackedCode.toCode2D(buffer[i]));
+        }
+        return neighbors;
+    }
+
     /**
      * 查询与几何图形相交的二维北斗网格码集合
      * <p>
@@ -204,6 +318,202 @@ public class BeiDouGridUtils {
         return BeiDouGrid2DRangeQuery.find2DGridCodesInRange(geometry, targetLevel);
     }
 
+    /**
+     * 查询与预处理几何图形相交的二维北斗网格码集合
+     * <p>
+     * 同一几何图形需要多次查询（如不同级别）时，复用同一个预处理几何图形可避免重复构建空间索引。
+     *
+     * @param prepared    预处理几何图形
+     * @param targetLevel 目标网格级别（1-10）
+     * @return 与几何图形相交的所有指定级别二维网格码集合
+     * @throws IllegalArgumentException 如果几何图形为空或级别越界
+     * @see BeiDouGrid2DRangeQuery#find2DGridCodesInRange(BeiDouGridPreparedGeometry, int) 实际执行二维查询的方法
+     */
+    public static Set<String> find2DIntersectingGridCodes(BeiDouGridPreparedGeometry prepared, int targetLevel) {
+        return BeiDouGrid2DRangeQuery.find2DGridCodesInRange(prepared, targetLevel);
+    }
+
+    /**
+     * 通过结果缓存查询与几何图形相交的二维北斗网格码集合
+     * <p>
+     * 同一几何图形（顶点顺序、起点不同也视为同一几何图形）与级别的重复查询直接返回缓存结果，
+     * 适合固定区域被反复查询的场景。
+     *
+     * @param geometry    查询几何图形（支持点、线、多边形等JTS几何类型）
+     * @param targetLevel 目标网格级别（1-10）
+     * @param cache       查询结果缓存
+     * @return 不可修改的二维网格码集合
+     * @throws IllegalArgumentException 如果几何图形为空或级别越界
+     * @see BeiDouGridQueryCache#find2DGridCodesInRange 实际执行缓存查询的方法
+     */
+    public static Set<String> find2DIntersectingGridCodes(Geometry geometry, int targetLevel, BeiDouGridQueryCache cache) {
+        return cache.find2DGridCodesInRange(geometry, targetLevel);
+    }
+
+    /**
+     * 增量计算几何图形变化后的二维北斗网格覆盖差异
+     * <p>
+     * 本方法是 {@link BeiDouGrid2DRangeQuery#diff2DGridCodesInRange} 的便捷封装，
+     * 适合移动或编辑后的电子围栏：只细化新旧几何图形不同的区域，下游索引按新增、移除的网格增量更新。
+     *
+     * @param oldGeometry 变化前的几何图形
+     * @param oldCodes    变化前几何图形的同级别网格码覆盖
+     * @param newGeometry 变化后的几何图形
+     * @param targetLevel 目标网格级别（1-10）
+     * @return 新增和移除的网格码
+     * @throws IllegalArgumentException 如果几何图形或原覆盖为空、级别越界
+     * @see BeiDouGrid2DRangeQuery#diff2DGridCodesInRange 实际执行增量计算的方法
+     */
+    public static BeiDouGridCoverageDiff diff2DIntersectingGridCodes(Geometry oldGeometry, Set<String> oldCodes,
+                                                                     Geometry newGeometry, int targetLevel) {
+        return BeiDouGrid2DRangeQuery.diff2DGridCodesInRange(oldGeometry, oldCodes, newGeometry, targetLevel);
+    }
+
+    /**
+     * 统计与几何图形相交的二维北斗网格数量
+     * <p>
+     * 本方法是 {@link BeiDouGrid2DRangeQuery#count2DGridCodesInRange} 的便捷封装，
+     * 结果与查询结果集合的大小相同，但不生成网格码，可用于在正式查询前评估规模或选择网格级别。
+     *
+     * @param geometry    查询几何图形（支持点、线、多边形等JTS几何类型）
+     * @param targetLevel 目标网格级别（1-10）
+     * @return 相交的网格数量
+     * @throws IllegalArgumentException 如果几何图形为空或级别越界
+     * @see BeiDouGrid2DRangeQuery#count2DGridCodesInRange 实际执行统计的方法
+     */
+    public static long count2DIntersectingGridCodes(Geometry geometry, int targetLevel) {
+        return BeiDouGrid2DRangeQuery.count2DGridCodesInRange(geometry, targetLevel);
+    }
+
+    /**
+     * 统计与几何图形及高度范围相交的三维北斗网格数量
+     * <p>
+     * 本方法是 {@link BeiDouGrid3DRangeQuery#count3DGridCodesInRange} 的便捷封装。
+     *
+     * @param geometry    查询几何图形（支持点、线、多边形等JTS几何类型）
+     * @param targetLevel 目标网格级别（1-10）
+     * @param minHeight   最小高度（米）
+     * @param maxHeight   最大高度（米）
+     * @return 相交的三维网格数量
+     * @throws IllegalArgumentException 如果参数不合法（几何图形为空、级别越界或高度范围无效）
+     * @see BeiDouGrid3DRangeQuery#count3DGridCodesInRange 实际执行统计的方法
+     */
+    public static long count3DIntersectingGridCodes(Geometry geometry, int targetLevel,
+                                                    double minHeight, double maxHeight) {
+        return BeiDouGrid3DRangeQuery.count3DGridCodesInRange(geometry, targetLevel, minHeight, maxHeight);
+    }
+
+    /**
+     * 在预算内查询与几何图形相交的二维北斗网格码
+     * <p>
+     * 本方法是 {@link BeiDouGrid2DRangeQuery#find2DGridCodesInRange(BeiDouGridPreparedGeometry, int, BeiDouGridQueryBudget)}
+     * 的便捷封装，网格数、访问数、超时或取消任一限制达到时返回部分结果，可按预算自动降低网格级别。
+     *
+     * @param geometry    查询几何图形（支持点、线、多边形等JTS几何类型）
+     * @param targetLevel 目标网格级别（1-10）
+     * @param budget      查询预算
+     * @return 查询结果，包含网格码、实际级别和停止原因
+     * @throws IllegalArgumentException 如果几何图形为空、级别越界或预算为空
+     */
+    public static BeiDouGridQueryResult find2DIntersectingGridCodes(Geometry geometry, int targetLevel,
+                                                                    BeiDouGridQueryBudget budget) {
+        return BeiDouGrid2DRangeQuery.find2DGridCodesInRange(new BeiDouGridPreparedGeometry(geometry), targetLevel, budget);
+    }
+
+    /**
+     * 以惰性流返回与几何图形相交的二维北斗网格码
+     * <p>
+     * 本方法是 {@link BeiDouGrid2DRangeQuery#stream2DGridCodes} 的便捷封装，网格在消费时才计算，
+     * 不在内存中保存完整结果，适合大范围、高级别的查询结果直接写出。
+     *
+     * @param geometry    查询几何图形（支持点、线、多边形等JTS几何类型）
+     * @param targetLevel 目标网格级别（1-10）
+     * @return 二维网格码流
+     * @throws IllegalArgumentException 如果几何图形为空或级别越界
+     * @see BeiDouGrid2DRangeQuery#stream2DGridCodes 实际执行二维查询的方法
+     */
+    public static Stream<String> stream2DIntersectingGridCodes(Geometry geometry, int targetLevel) {
+        return BeiDouGrid2DRangeQuery.stream2DGridCodes(geometry, targetLevel);
+    }
+
+    /**
+     * 以惰性流返回与几何图形及高度范围相交的三维北斗网格码
+     * <p>
+     * 本方法是 {@link BeiDouGrid3DRangeQuery#stream3DGridCodes} 的便捷封装，
+     * 结果与 {@link #find3DIntersectingGridCodes(Geometry, int, double, double)} 相同。
+     *
+     * @param geometry    查询几何图形（支持点、线、多边形等JTS几何类型）
+     * @param targetLevel 目标网格级别（1-10）
+     * @param minHeight   最小高度（米）
+     * @param maxHeight   最大高度（米）
+     * @return 三维网格码流
+     * @throws IllegalArgumentException 如果参数不合法（几何图形为空、级别越界或高度范围无效）
+     * @see BeiDouGrid3DRangeQuery#stream3DGridCodes 实际执行三维查询的方法
+     */
+    public static Stream<String> stream3DIntersectingGridCodes(Geometry geometry, int targetLevel,
+                                                               double minHeight, double maxHeight) {
+        return BeiDouGrid3DRangeQuery.stream3DGridCodes(geometry, targetLevel, minHeight, maxHeight);
+    }
+
+    /**
+     * 查询以某点为圆心、指定半径的球面圆范围内的二维北斗网格码集合
+     * <p>
+     * 本方法是 {@link BeiDouGridProximityQuery#cellsWithinMeters} 的便捷封装，按行列号直接枚举与圆相交的网格，
+     * 比构造缓冲区多边形再做范围查询快得多，适合“某点周边若干米内”的邻近查询。
+     *
+     * @param center      圆心
+     * @param radius      半径（米）
+     * @param targetLevel 目标网格级别（1-10）
+     * @return 与圆相交的二维网格码集合
+     * @throws IllegalArgumentException 如果半径小于0或级别越界
+     * @see BeiDouGridProximityQuery#cellsWithinMeters 实际执行邻近查询的方法
+     */
+    public static Set<String> findGridCodesWithinMeters(BeiDouGeoPoint center, double radius, int targetLevel) {
+        long[] cells = BeiDouGridProximityQuery.cellsWithinMeters(center.getLongitude(), center.getLatitude(),
+                radius, targetLevel);
+        Set<String> codes = new HashSet<>(cells.length * 4 / 3 + 1);
+        for (long cell : cells) {
+            codes.add(BeiDouGridPackedCode.toCode2D(cell));
+        }
+        return codes;
+    }
+
+    /**
+     * 计算覆盖几何图形的混合层级二维网格码集合
+     * <p>
+     * 本方法是 {@link BeiDouGridRegionCoverer#getCovering} 的便捷封装，内部区域使用大网格、边界使用小网格，
+     * 子网格齐全时合并为父网格，网格数远少于单一级别的查询结果。
+     *
+     * @param geometry 查询几何图形（支持点、线、多边形等JTS几何类型）
+     * @param minLevel 最小网格级别（1-10）
+     * @param maxLevel 最大网格级别（1-10）
+     * @param maxCells 网格数量预算
+     * @return 覆盖几何图形的混合层级二维网格码集合
+     * @throws IllegalArgumentException 如果参数不合法（几何图形为空、级别越界或预算小于1）
+     * @see BeiDouGridRegionCoverer#getCovering 实际执行覆盖计算的方法
+     */
+    public static Set<String> findCoveringGridCodes(Geometry geometry, int minLevel, int maxLevel, int maxCells) {
+        return BeiDouGridRegionCoverer.getCovering(geometry, minLevel, maxLevel, maxCells);
+    }
+
+    /**
+     * 计算完全位于几何图形内部的混合层级二维网格码集合
+     * <p>
+     * 本方法是 {@link BeiDouGridRegionCoverer#getInteriorCovering} 的便捷封装，最小级别与最大级别相同时即为单一级别。
+     * 落在结果网格中的点必然位于几何图形内，可直接判定而无需精确的点在面内计算。
+     *
+     * @param geometry 查询几何图形（面状几何图形）
+     * @param minLevel 最小网格级别（1-10）
+     * @param maxLevel 最大网格级别（1-10）
+     * @param maxCells 网格数量预算
+     * @return 完全位于几何图形内部的二维网格码集合
+     * @throws IllegalArgumentException 如果参数不合法（几何图形为空、级别越界或预算小于1）
+     * @see BeiDouGridRegionCoverer#getInteriorCovering 实际执行覆盖计算的方法
+     */
+    public static Set<String> findInteriorGridCodes(Geometry geometry, int minLevel, int maxLevel, int maxCells) {
+        return BeiDouGridRegionCoverer.getInteriorCovering(geometry, minLevel, maxLevel, maxCells);
+    }
+
     /**
      * 查找与几何图形相交的三维网格码（指定高度范围）
      * <p>
@@ -1,16 +1,43 @@
 package io.github.ywx001.core.utils;
 
 import io.github.ywx001.core.common.BeiDouGrid2DRangeQuery;
+import io.github.ywx001.core.common.BeiDouGrid3DRangeQuery;
+import io.github.ywx001.core.common.BeiDouGridLineTraversal;
+import io.github.ywx001.core.common.BeiDouGridPackedCode;
+import io.github.ywx001.core.common.BeiDouGridPreparedGeometry;
+import io.github.ywx001.core.constants.BeiDouGridConstants;
 import io.github.ywx001.core.decoder.BeiDouGridDecoder;
+import io.github.ywx001.core.encoder.BeiDouGridEncoder;
+import io.github.ywx001.core.model.BeiDouGeoPoint;
+import io.github.ywx001.core.model.BeiDouGridCoverageDiff;
+import io.github.ywx001.core.model.BeiDouGridQueryBudget;
+import io.github.ywx001.core.model.BeiDouGridQueryResult;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.util.AffineTransformation;
 import org.locationtech.jts.io.geojson.GeoJsonWriter;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
+import static io.github.ywx001.core.utils.BeiDouGridTestFixtures.HEMISPHERE_POINTS;
+import static io.github.ywx001.core.utils.BeiDouGridTestFixtures.createPolygon;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -128,6 +155,42 @@ class BeiDouGrid2DRangeQueryTest {
         });
     }
 
+    @Test
+    void testGenerateChildGrids2D() {
+        // 四个半球各取一点，逐级枚举子网格
+        String[] buffer = new String[BeiDouGridConstants.MAX_CHILD_COUNT];
+        long[] packedBuffer = new long[BeiDouGridConstants.MAX_CHILD_COUNT];
+        double[] bounds = new double[4];
+        for (double[] p : HEMISPHERE_POINTS) {
+            for (int level = 1; level <= 9; level++) {
+                String parent = BeiDouGridEncoder.encode2D(BeiDouGeoPoint.builder().longitude(p[0]).latitude(p[1]).build(), level);
+                int count = BeiDouGrid2DRangeQuery.generateChildGrids2D(parent, buffer);
+                int[] divisions = BeiDouGridConstants.GRID_DIVISIONS[level + 1];
+                assertEquals(divisions[0] * divisions[1], count);
+
+                int packedCount = BeiDouGridPackedCode.children(BeiDouGridPackedCode.fromCode2D(parent), packedBuffer);
+                assertEquals(count, packedCount);
+                Set<String> expected = new HashSet<>();
+                for (int i = 0; i < packedCount; i++) {
+                    expected.add(BeiDouGridPackedCode.toCode2D(packedBuffer[i]));
+                }
+                assertEquals(expected, BeiDouGrid2DRangeQuery.generateChildGrids2D(parent));
+
+                // 子网格中心点重新编码应得到子网格本身
+                for (int i = 0; i < count; i++) {
+                    assertTrue(buffer[i].startsWith(parent));
+                    BeiDouGridDecoder.decode2DBounds(buffer[i], bounds);
+                    BeiDouGeoPoint center = BeiDouGeoPoint.builder()
+                            .longitude((bounds[0] + bounds[1]) / 2).latitude((bounds[2] + bounds[3]) / 2).build();
+                    assertEquals(buffer[i], BeiDouGridEncoder.encode2D(center, level + 1));
+                }
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGrid2DRangeQuery.generateChildGrids2D("N50J47", new String[5]));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGrid2DRangeQuery.generateChildGrids2D("N50J4731", buffer));
+    }
+
     @Test
     void testCreateGridPolygon() {
         // 测试网格码
@@ -170,4 +233,354 @@ class BeiDouGrid2DRangeQueryTest {
 //        System.out.println("一级网格 " + level1Grid + " 的多边形: " + new GeoJsonWriter().write(polygon1));
 //        System.out.println("二级网格 " + level2Grid + " 的多边形: " + new GeoJsonWriter().write(polygon2));
     }
+
+    @Test
+    void testFind2DGridCodesInRangeWithPreparedGeometry() {
+        // 四个半球各取一个小多边形，结果网格都应与多边形相交，多边形内的点所在网格都应在结果中
+        int targetLevel = 6;
+        double size = 0.02;
+        for (double[] origin : HEMISPHERE_POINTS) {
+            Geometry polygon = createPolygon(origin, size);
+            BeiDouGridPreparedGeometry prepared = new BeiDouGridPreparedGeometry(polygon);
+            Set<String> gridCodes = BeiDouGridUtils.find2DIntersectingGridCodes(prepared, targetLevel);
+            assertEquals(gridCodes, BeiDouGridUtils.find2DIntersectingGridCodes(polygon, targetLevel));
+
+            double[] bounds = new double[4];
+            for (String code : gridCodes) {
+                BeiDouGridDecoder.decode2DBounds(code, bounds);
+                Geometry cell = GEOMETRY_FACTORY.toGeometry(new Envelope(bounds[0], bounds[1], bounds[2], bounds[3]));
+                assertTrue(polygon.intersects(cell), code);
+            }
+            for (double lng = origin[0] - size; lng <= origin[0] + size * 2; lng += size / 50) {
+                for (double lat = origin[1] - size; lat <= origin[1] + size * 2; lat += size / 50) {
+                    if (polygon.contains(GEOMETRY_FACTORY.createPoint(new Coordinate(lng, lat)))) {
+                        String code = BeiDouGridEncoder.encode2D(new BeiDouGeoPoint(lng, lat, 0), targetLevel);
+                        assertTrue(gridCodes.contains(code), code);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testInteriorCellsEnumeratedWithoutGeometryTests() {
+        // 略小于一个2级网格的矩形：内部网格直接枚举，结果应恰好为该2级网格的全部4级后代
+        long parent = BeiDouGridEncoder.encode2DPacked(116.3912345, 39.9065432, 2);
+        double[] bounds = new double[4];
+        BeiDouGridDecoder.decode2DBounds(parent, bounds);
+        double margin = 1e-9;
+        Geometry rectangle = GEOMETRY_FACTORY.toGeometry(new Envelope(
+                bounds[0] + margin, bounds[1] - margin, bounds[2] + margin, bounds[3] - margin));
+
+        BeiDouGridPreparedGeometry prepared = new BeiDouGridPreparedGeometry(rectangle);
+        assertEquals(BeiDouGrid2DRangeQuery.SpatialRelation.INTERSECTS, prepared.relate(bounds));
+        double lngCenter = (bounds[0] + bounds[1]) / 2;
+        double latCenter = (bounds[2] + bounds[3]) / 2;
+        assertEquals(BeiDouGrid2DRangeQuery.SpatialRelation.CONTAINS,
+                prepared.relate(lngCenter - 0.01, lngCenter + 0.01, latCenter - 0.01, latCenter + 0.01));
+        assertEquals(BeiDouGrid2DRangeQuery.SpatialRelation.DISJOINT,
+                prepared.relate(bounds[1] + 0.01, bounds[1] + 0.02, latCenter, latCenter + 0.01));
+
+        Set<String> gridCodes = BeiDouGridUtils.find2DIntersectingGridCodes(prepared, 4);
+        int[][] divisions = BeiDouGridConstants.GRID_DIVISIONS;
+        assertEquals(divisions[3][0] * divisions[3][1] * divisions[4][0] * divisions[4][1], gridCodes.size());
+        String parentCode = BeiDouGridPackedCode.toCode2D(parent);
+        for (String code : gridCodes) {
+            assertTrue(code.startsWith(parentCode), code);
+        }
+    }
+
+    @Test
+    void testFind2DGridCodesByScanline() {
+        // 多边形（含洞）、线、点及多面，四个半球：与逐级细化的结果一致
+        Geometry[] geometries = {
+                GEOMETRY_FACTORY.createPolygon(new Coordinate[]{
+                        new Coordinate(116.3912345, 39.9065432), new Coordinate(116.4187654, 39.9123456),
+                        new Coordinate(116.4123456, 39.9365432), new Coordinate(116.3865432, 39.9276543),
+                        new Coordinate(116.3912345, 39.9065432)}),
+                GEOMETRY_FACTORY.createPolygon(
+                        GEOMETRY_FACTORY.createLinearRing(new Coordinate[]{
+                                new Coordinate(-58.3915591, -34.6136844), new Coordinate(-58.3615591, -34.6136844),
+                                new Coordinate(-58.3615591, -34.5936844), new Coordinate(-58.3915591, -34.5936844),
+                                new Coordinate(-58.3915591, -34.6136844)}),
+                        new LinearRing[]{GEOMETRY_FACTORY.createLinearRing(new Coordinate[]{
+                                new Coordinate(-58.3815591, -34.6086844), new Coordinate(-58.3715591, -34.6086844),
+                                new Coordinate(-58.3765591, -34.5986844), new Coordinate(-58.3815591, -34.6086844)})}),
+                GEOMETRY_FACTORY.createLineString(new Coordinate[]{
+                        new Coordinate(151.2052967, -33.8667844), new Coordinate(151.2352967, -33.8467844),
+                        new Coordinate(151.2152967, -33.8367844)}),
+                GEOMETRY_FACTORY.createPoint(new Coordinate(-73.9856731, 40.7484452)),
+                GEOMETRY_FACTORY.createMultiPolygon(new Polygon[]{
+                        (Polygon) GEOMETRY_FACTORY.toGeometry(new Envelope(-0.0123, -0.0023, -0.0087, 0.0034)),
+                        (Polygon) GEOMETRY_FACTORY.toGeometry(new Envelope(0.0011, 0.0093, 0.0012, 0.0071))})
+        };
+        double[] bounds = new double[4];
+        for (Geometry geometry : geometries) {
+            for (int level = 3; level <= 7; level++) {
+                Set<String> scanline = BeiDouGrid2DRangeQuery.find2DGridCodesByScanline(geometry, level);
+                Set<String> refined = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(geometry, level);
+                assertFalse(scanline.isEmpty());
+
+                // 只允许恰好擦过网格角点、因浮点舍入而判定不同的网格
+                Set<String> difference = new HashSet<>(scanline);
+                difference.addAll(refined);
+                Set<String> common = new HashSet<>(scanline);
+                common.retainAll(refined);
+                difference.removeAll(common);
+                for (String code : difference) {
+                    BeiDouGridDecoder.decode2DBounds(code, bounds);
+                    Geometry cell = GEOMETRY_FACTORY.toGeometry(new Envelope(bounds[0], bounds[1], bounds[2], bounds[3]));
+                    assertTrue(geometry.distance(cell) < (bounds[1] - bounds[0]) * 1e-6, code);
+                }
+                assertTrue(difference.size() * 100 <= refined.size() + 100, "级别" + level + "差异过多");
+            }
+        }
+    }
+
+    @Test
+    void testConcurrentQueries() throws Exception {
+        // 跨越多个一级网格和赤道的大多边形，多线程同时查询，每次结果都应与单次查询完全一致
+        Geometry geometry = GEOMETRY_FACTORY.createPoint(new Coordinate(115.123, 1.234)).buffer(4.5, 32);
+        Set<String> expected = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(geometry, 4);
+        assertTrue(expected.size() > 100000);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Set<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads * 2; i++) {
+                futures.add(executor.submit(() -> BeiDouGrid2DRangeQuery.find2DGridCodesInRange(geometry, 4)));
+            }
+            for (Future<Set<String>> future : futures) {
+                assertEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testStream2DGridCodes() {
+        Geometry geometry = GEOMETRY_FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(-0.0512345, -0.0287654), new Coordinate(0.0487654, -0.0312345),
+                new Coordinate(0.0312345, 0.0412345), new Coordinate(-0.0412345, 0.0287654),
+                new Coordinate(-0.0512345, -0.0287654)});
+        BeiDouGridPreparedGeometry prepared = new BeiDouGridPreparedGeometry(geometry);
+        Set<String> expected = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(prepared, 6);
+
+        // 流、迭代器和回调的结果与集合查询相同，且不重复
+        List<String> streamed = BeiDouGridUtils.stream2DIntersectingGridCodes(geometry, 6).collect(Collectors.toList());
+        assertEquals(expected.size(), streamed.size());
+        assertEquals(expected, new HashSet<>(streamed));
+
+        List<String> visited = new ArrayList<>();
+        BeiDouGrid2DRangeQuery.forEach2DGridCell(prepared, 6, cell -> visited.add(BeiDouGridPackedCode.toCode2D(cell)));
+        assertEquals(streamed, visited);
+
+        // 惰性：只取前几个网格时不必细化整个几何图形
+        Geometry large = GEOMETRY_FACTORY.toGeometry(new Envelope(100.123, 120.456, 20.123, 40.456));
+        PrimitiveIterator.OfLong iterator = BeiDouGrid2DRangeQuery.iterate2DGridCells(new BeiDouGridPreparedGeometry(large), 10);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(iterator.hasNext());
+            assertEquals(10, BeiDouGridPackedCode.getLevel(iterator.nextLong()));
+        }
+        assertEquals(5, BeiDouGrid2DRangeQuery.stream2DGridCodes(large, 10).limit(5).count());
+    }
+
+    @Test
+    void testFind2DGridCodesWithBudget() {
+        Geometry geometry = GEOMETRY_FACTORY.createPoint(new Coordinate(-73.9856731, 40.7484452)).buffer(0.02, 16);
+        BeiDouGridPreparedGeometry prepared = new BeiDouGridPreparedGeometry(geometry);
+        Set<String> expected = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(prepared, 6);
+
+        BeiDouGridQueryResult unlimited = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(prepared, 6,
+                BeiDouGridQueryBudget.builder().build());
+        assertTrue(unlimited.isComplete());
+        assertEquals(expected, unlimited.getCodes());
+
+        // 网格数预算：恰好返回预算数量的部分结果
+        BeiDouGridQueryResult limited = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(prepared, 6,
+                BeiDouGridQueryBudget.builder().maxCells(100).build());
+        assertEquals(BeiDouGridQueryResult.StopReason.MAX_CELLS, limited.getStopReason());
+        assertEquals(100, limited.getCodes().size());
+        assertTrue(expected.containsAll(limited.getCodes()));
+
+        BeiDouGridQueryResult visited = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(prepared, 6,
+                BeiDouGridQueryBudget.builder().maxVisitedNodes(50).build());
+        assertEquals(BeiDouGridQueryResult.StopReason.MAX_VISITED_NODES, visited.getStopReason());
+        assertTrue(expected.containsAll(visited.getCodes()));
+
+        BeiDouGridQueryResult cancelled = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(prepared, 6,
+                BeiDouGridQueryBudget.builder().cancellation(() -> true).build());
+        assertEquals(BeiDouGridQueryResult.StopReason.CANCELLED, cancelled.getStopReason());
+
+        // 降级：降到完整结果满足预算的级别
+        BeiDouGridQueryResult coarsened = BeiDouGridUtils.find2DIntersectingGridCodes(geometry, 6,
+                BeiDouGridQueryBudget.builder().maxCells(500).coarsen(true).build());
+        assertTrue(coarsened.isComplete());
+        assertTrue(coarsened.getLevel() < 6);
+        assertEquals(BeiDouGrid2DRangeQuery.find2DGridCodesInRange(prepared, coarsened.getLevel()), coarsened.getCodes());
+
+        // 超时：大范围高级别查询在超时后及时返回
+        Geometry large = GEOMETRY_FACTORY.toGeometry(new Envelope(100.123, 120.456, 20.123, 40.456));
+        long start = System.currentTimeMillis();
+        BeiDouGridQueryResult timedOut = BeiDouGridUtils.find2DIntersectingGridCodes(large, 10,
+                BeiDouGridQueryBudget.builder().timeoutMillis(50).build());
+        assertEquals(BeiDouGridQueryResult.StopReason.DEADLINE, timedOut.getStopReason());
+        assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    void testCount2DGridCodes() {
+        Geometry polygon = GEOMETRY_FACTORY.createPoint(new Coordinate(151.2152967, -33.8567844)).buffer(0.05, 16);
+        Geometry line = GEOMETRY_FACTORY.createLineString(new Coordinate[]{
+                new Coordinate(-58.3915591, -34.6136844), new Coordinate(-58.3515591, -34.5936844)});
+        for (Geometry geometry : new Geometry[]{polygon, line}) {
+            for (int level = 1; level <= 7; level++) {
+                assertEquals(BeiDouGrid2DRangeQuery.find2DGridCodesInRange(geometry, level).size(),
+                        BeiDouGridUtils.count2DIntersectingGridCodes(geometry, level));
+            }
+        }
+        assertEquals(BeiDouGrid3DRangeQuery.generate3DGridCodesDirectly(polygon, 5, 0, 500).size(),
+                BeiDouGridUtils.count3DIntersectingGridCodes(polygon, 5, 0, 500));
+
+        // 大范围高级别的计数只需细化边界网格
+        Geometry large = GEOMETRY_FACTORY.toGeometry(new Envelope(100.123, 120.456, 20.123, 40.456));
+        assertTrue(BeiDouGrid2DRangeQuery.count2DGridCodesInRange(large, 6) > 1_000_000_000L);
+    }
+
+    @Test
+    void testFind2DGridCodesWithLineString() {
+        Random random = new Random(22);
+        for (int n = 0; n < 200; n++) {
+            double lng = random.nextDouble() * 340 - 170;
+            double lat = random.nextDouble() * 160 - 80;
+            int level = 3 + random.nextInt(6);
+            double length = BeiDouGridConstants.GRID_SIZES_SECONDS[level][0] / 3600 * 20;
+            LineString line = GEOMETRY_FACTORY.createLineString(new Coordinate[]{
+                    new Coordinate(lng, lat),
+                    new Coordinate(lng + (random.nextDouble() - 0.5) * length, lat + (random.nextDouble() - 0.5) * length),
+                    new Coordinate(lng + (random.nextDouble() - 0.5) * length, lat + (random.nextDouble() - 0.5) * length)});
+            List<String> cells = BeiDouGrid2DRangeQuery.find2DGridCodesWithLineString(line, level);
+
+            // 每段线经过的网格只出现一次，相邻网格在8邻域内
+            Coordinate[] coordinates = line.getCoordinates();
+            for (int j = 0; j + 1 < coordinates.length; j++) {
+                List<Long> segment = new ArrayList<>();
+                BeiDouGridLineTraversal.traverse2D(coordinates[j].x, coordinates[j].y,
+                        coordinates[j + 1].x, coordinates[j + 1].y, level, segment::add);
+                assertEquals(segment.size(), new HashSet<>(segment).size());
+            }
+            for (int i = 1; i < cells.size(); i++) {
+                long a = BeiDouGridPackedCode.fromCode2D(cells.get(i - 1));
+                long b = BeiDouGridPackedCode.fromCode2D(cells.get(i));
+                assertTrue(Math.abs(BeiDouGridPackedCode.getLatticeLngIndex(a) - BeiDouGridPackedCode.getLatticeLngIndex(b)) <= 1);
+                assertTrue(Math.abs(BeiDouGridPackedCode.getLatticeLatIndex(a) - BeiDouGridPackedCode.getLatticeLatIndex(b)) <= 1);
+            }
+
+            // 包含线上采样点所在的全部网格，且都与线相交
+            Set<String> expected = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(line, level);
+            assertTrue(expected.containsAll(cells));
+            for (int j = 0; j + 1 < coordinates.length; j++) {
+                for (int k = 0; k <= 1000; k++) {
+                    double x = coordinates[j].x + (coordinates[j + 1].x - coordinates[j].x) * k / 1000;
+                    double y = coordinates[j].y + (coordinates[j + 1].y - coordinates[j].y) * k / 1000;
+                    assertTrue(cells.contains(BeiDouGridPackedCode.toCode2D(BeiDouGridEncoder.encode2DPacked(x, y, level))));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDiff2DGridCodes() {
+        // 移动的圆形围栏、编辑后的多边形、多边形变为线
+        Geometry zone = GEOMETRY_FACTORY.createPoint(new Coordinate(121.4737, 31.2304)).buffer(0.02, 16);
+        AffineTransformation shift = AffineTransformation.translationInstance(0.0013, -0.0007);
+        Geometry moved = shift.transform(zone);
+        Geometry edited = zone.union(GEOMETRY_FACTORY.toGeometry(new Envelope(121.48, 121.51, 31.22, 31.24)));
+        Geometry line = GEOMETRY_FACTORY.createLineString(new Coordinate[]{
+                new Coordinate(121.45, 31.21), new Coordinate(121.50, 31.25)});
+        Geometry[][] cases = {{zone, moved}, {moved, shift.transform(moved)}, {zone, edited}, {edited, zone}, {zone, line}};
+        for (Geometry[] pair : cases) {
+            for (int level = 5; level <= 7; level++) {
+                Set<String> oldCodes = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(pair[0], level);
+                Set<String> newCodes = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(pair[1], level);
+                BeiDouGridCoverageDiff diff = BeiDouGridUtils.diff2DIntersectingGridCodes(pair[0], oldCodes, pair[1], level);
+
+                Set<String> updated = new HashSet<>(oldCodes);
+                updated.removeAll(diff.getRemoved());
+                updated.addAll(diff.getAdded());
+                assertEquals(newCodes, updated);
+                assertTrue(oldCodes.containsAll(diff.getRemoved()));
+                assertTrue(Collections.disjoint(oldCodes, diff.getAdded()));
+            }
+        }
+
+        // 几何图形不变时没有差异
+        Set<String> codes = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(zone, 7);
+        assertTrue(BeiDouGrid2DRangeQuery.diff2DGridCodesInRange(zone, codes, zone.copy(), 7).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGrid2DRangeQuery.diff2DGridCodesInRange(zone, null, zone, 7));
+        assertTrue(new BeiDouGridCoverageDiff().isEmpty());
+        assertTrue(new BeiDouGridCoverageDiff(null, null).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testHemisphereAndAntimeridianQueries() {
+        // 跨赤道和本初子午线、位于南半球西经的多边形，旧接口与新接口结果一致
+        Geometry straddling = GEOMETRY_FACTORY.toGeometry(new Envelope(-0.37, 0.21, -0.18, 0.26));
+        Geometry southWest = GEOMETRY_FACTORY.createPoint(new Coordinate(-58.38, -34.6)).buffer(0.3, 16);
+        for (Geometry geometry : new Geometry[]{straddling, southWest}) {
+            Set<String> expected = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(geometry, 5);
+            assertEquals(expected, BeiDouGrid2DRangeQuery.findGridCodesInRange(geometry, 5));
+            assertEquals(expected, BeiDouGrid2DRangeQuery.find2DGridCodesByScanline(geometry, 5));
+        }
+        Set<String> hemispheres = new HashSet<>();
+        for (String code : BeiDouGrid2DRangeQuery.find2DGridCodesInRange(straddling, 3)) {
+            hemispheres.add(code.charAt(0) + (code.substring(1, 3).compareTo("31") < 0 ? "W" : "E"));
+        }
+        assertEquals(Set.of("NE", "NW", "SE", "SW"), hemispheres);
+
+        // 全球范围：每个1级网格恰好出现一次
+        Geometry global = GEOMETRY_FACTORY.toGeometry(new Envelope(-180, 180, -88, 88));
+        assertEquals(60 * 44, BeiDouGrid2DRangeQuery.find2DGridCodesInRange(global, 1).size());
+
+        // 跨反子午线：经度连续写作170°~190°的多边形与在±180°处切开的两部分结果相同
+        Geometry transPacific = GEOMETRY_FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(170.3, 10.1), new Coordinate(189.7, 11.2), new Coordinate(185.2, 13.9),
+                new Coordinate(172.4, 12.6), new Coordinate(170.3, 10.1)});
+        Geometry east = transPacific.intersection(GEOMETRY_FACTORY.toGeometry(new Envelope(170, 180, 0, 20)));
+        Geometry west = AffineTransformation.translationInstance(-360, 0)
+                .transform(transPacific.intersection(GEOMETRY_FACTORY.toGeometry(new Envelope(180, 190, 0, 20))));
+        for (int level = 2; level <= 4; level++) {
+            Set<String> expected = new HashSet<>(BeiDouGrid2DRangeQuery.find2DGridCodesInRange(east, level));
+            expected.addAll(BeiDouGrid2DRangeQuery.find2DGridCodesInRange(west, level));
+            assertEquals(expected, BeiDouGrid2DRangeQuery.find2DGridCodesInRange(transPacific, level));
+            // 扫描线结果另含少量在浮点舍入范围内擦过角点的网格
+            assertTrue(BeiDouGrid2DRangeQuery.find2DGridCodesByScanline(transPacific, level).containsAll(expected));
+            assertEquals(expected.size(), BeiDouGrid2DRangeQuery.count2DGridCodesInRange(transPacific, level));
+        }
+        LineString dateLine = GEOMETRY_FACTORY.createLineString(new Coordinate[]{
+                new Coordinate(179.5, -20.5), new Coordinate(180.5, -21.5)});
+        Set<String> codes = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(dateLine, 2);
+        assertTrue(codes.contains(BeiDouGridPackedCode.toCode2D(BeiDouGridEncoder.encode2DPacked(179.9, -20.9, 2))));
+        assertTrue(codes.contains(BeiDouGridPackedCode.toCode2D(BeiDouGridEncoder.encode2DPacked(-179.9, -21.1, 2))));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testGeometryCollection() {
+        // 多边形加点的几何图形集合：结果为各成分结果的并集，内部网格仍按多边形判断
+        Geometry polygon = GEOMETRY_FACTORY.createPoint(new Coordinate(116.391, 39.913)).buffer(0.05, 16);
+        Geometry point = GEOMETRY_FACTORY.createPoint(new Coordinate(116.9, 40.3));
+        Geometry collection = GEOMETRY_FACTORY.createGeometryCollection(new Geometry[]{polygon, point});
+        for (int level = 3; level <= 6; level++) {
+            Set<String> expected = new HashSet<>(BeiDouGrid2DRangeQuery.find2DGridCodesInRange(polygon, level));
+            expected.addAll(BeiDouGrid2DRangeQuery.find2DGridCodesInRange(point, level));
+            assertEquals(expected, BeiDouGrid2DRangeQuery.find2DGridCodesInRange(collection, level));
+            assertEquals(expected, BeiDouGrid2DRangeQuery.findGridCodesInRange(collection, level));
+            assertEquals(expected.size(), BeiDouGrid2DRangeQuery.count2DGridCodesInRange(collection, level));
+        }
+        assertFalse(BeiDouGridUtils.findCoveringGridCodes(collection, 3, 6, 200).isEmpty());
+    }
 }
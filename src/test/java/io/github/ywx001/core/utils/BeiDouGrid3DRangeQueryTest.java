@@ -1,13 +1,23 @@
 package io.github.ywx001.core.utils;
 
 import io.github.ywx001.core.common.BeiDouGrid3DRangeQuery;
+import io.github.ywx001.core.common.BeiDouGridPackedCode;
+import io.github.ywx001.core.encoder.BeiDouGridEncoder;
+import io.github.ywx001.core.model.BeiDouGridQueryBudget;
+import io.github.ywx001.core.model.BeiDouGridQueryResult;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.locationtech.jts.geom.*;
 import org.locationtech.jts.io.geojson.GeoJsonWriter;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -106,5 +116,120 @@ class BeiDouGrid3DRangeQueryTest {
         assertNotNull(result);
         assertFalse(result.isEmpty());
         log.debug("结果{}", result);
+
+        // 每个网格只出现一次，且包含线上采样点所在的全部网格
+        assertEquals(result.size(), new HashSet<>(result).size());
+        for (int j = 0; j + 1 < coordinates.length; j++) {
+            for (int k = 0; k <= 2000; k++) {
+                double x = coordinates[j].x + (coordinates[j + 1].x - coordinates[j].x) * k / 2000;
+                double y = coordinates[j].y + (coordinates[j + 1].y - coordinates[j].y) * k / 2000;
+                double z = coordinates[j].z + (coordinates[j + 1].z - coordinates[j].z) * k / 2000;
+                String code = BeiDouGridPackedCode.toCode3D(BeiDouGridEncoder.encode3DPlanePacked(x, y, 6),
+                        BeiDouGridEncoder.encode3DHeightPacked(z, 6));
+                assertTrue(result.contains(code), code);
+            }
+        }
+    }
+
+    @Test
+    void testGenerate3DGridCodesDirectly() {
+        Coordinate[] coordinates = new Coordinate[]{
+                new Coordinate(116.391, 39.913),
+                new Coordinate(116.401, 39.913),
+                new Coordinate(116.401, 39.923),
+                new Coordinate(116.391, 39.923),
+                new Coordinate(116.391, 39.913)
+        };
+        Geometry geom = GEOMETRY_FACTORY.createPolygon(coordinates);
+
+        // 结果应为相交的二维网格与高度范围内各点所在高度网格的组合，包含跨越地面的高度范围
+        for (int level = 4; level <= 6; level++) {
+            Set<Integer> heights = new HashSet<>();
+            for (double height = -50; height < 500; height += 0.01) {
+                heights.add(BeiDouGridEncoder.encode3DHeightPacked(height, level));
+            }
+            heights.add(BeiDouGridEncoder.encode3DHeightPacked(500, level));
+
+            Set<String> expected = new HashSet<>();
+            for (String grid2D : BeiDouGridUtils.find2DIntersectingGridCodes(geom, level)) {
+                long plane = BeiDouGridPackedCode.fromCode2D(grid2D);
+                for (int height : heights) {
+                    expected.add(BeiDouGridPackedCode.toCode3D(plane, height));
+                }
+            }
+            Set<String> direct = BeiDouGrid3DRangeQuery.generate3DGridCodesDirectly(geom, level, -50, 500);
+            assertEquals(expected, direct, "级别" + level + "结果不一致");
+        }
+    }
+
+    @Test
+    void testGenerate3DGridCodesConcurrently() throws Exception {
+        // 多线程同时生成，结果应与单次生成一致，且恰为二维网格与高度网格的组合
+        Geometry geometry = GEOMETRY_FACTORY.createPoint(new Coordinate(-0.567, 51.234)).buffer(1.5, 32);
+        Set<String> grids2D = BeiDouGridUtils.find2DIntersectingGridCodes(geometry, 4);
+        Set<String> expected = BeiDouGrid3DRangeQuery.generate3DGridCodesDirectly(geometry, 4, 0, 3000);
+        assertEquals(0, expected.size() % grids2D.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Set<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> BeiDouGrid3DRangeQuery.generate3DGridCodesDirectly(geometry, 4, 0, 3000)));
+            }
+            for (Future<Set<String>> future : futures) {
+                assertEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testStream3DGridCodes() {
+        Geometry geometry = GEOMETRY_FACTORY.createPoint(new Coordinate(151.2152967, -33.8567844)).buffer(0.05, 16);
+        Set<String> expected = BeiDouGrid3DRangeQuery.find3DGridCodesInRange(geometry, 5, -20, 800);
+
+        List<String> streamed = BeiDouGridUtils.stream3DIntersectingGridCodes(geometry, 5, -20, 800)
+                .collect(Collectors.toList());
+        assertEquals(expected.size(), streamed.size());
+        assertEquals(expected, new HashSet<>(streamed));
+
+        List<String> visited = new ArrayList<>();
+        BeiDouGrid3DRangeQuery.forEach3DGridCode(geometry, 5, -20, 800, visited::add);
+        assertEquals(streamed, visited);
+
+        // 等高划分与对数高度两种高度语义的结果不同，各自与对应的查询一致
+        Geometry box = GEOMETRY_FACTORY.toGeometry(new Envelope(116.30, 116.32, 39.90, 39.92));
+        Set<String> found = BeiDouGrid3DRangeQuery.find3DGridCodesInRange(box, 6, 0, 500);
+        assertEquals(found, BeiDouGrid3DRangeQuery.stream3DGridCodes(box, 6, 0, 500).collect(Collectors.toSet()));
+        assertEquals(found.size(), BeiDouGrid3DRangeQuery.stream3DGridCodes(box, 6, 0, 500).count());
+
+        Set<String> direct = BeiDouGrid3DRangeQuery.generate3DGridCodesDirectly(geometry, 5, -20, 800);
+        List<String> directStreamed = BeiDouGrid3DRangeQuery.stream3DGridCodesDirectly(geometry, 5, -20, 800)
+                .collect(Collectors.toList());
+        assertEquals(direct.size(), directStreamed.size());
+        assertEquals(direct, new HashSet<>(directStreamed));
+        List<String> directVisited = new ArrayList<>();
+        BeiDouGrid3DRangeQuery.forEach3DGridCodeDirectly(geometry, 5, -20, 800, directVisited::add);
+        assertEquals(directStreamed, directVisited);
+    }
+
+    @Test
+    void testGenerate3DGridCodesWithBudget() {
+        Geometry geometry = GEOMETRY_FACTORY.createPoint(new Coordinate(120.5830508, 31.1415575)).buffer(0.05, 16);
+        Set<String> expected = BeiDouGrid3DRangeQuery.generate3DGridCodesDirectly(geometry, 5, 0, 1000);
+        int heights = expected.size() / BeiDouGridUtils.find2DIntersectingGridCodes(geometry, 5).size();
+
+        // 一个二维网格的全部高度网格作为整体计入预算
+        BeiDouGridQueryResult limited = BeiDouGrid3DRangeQuery.generate3DGridCodesDirectly(geometry, 5, 0, 1000,
+                BeiDouGridQueryBudget.builder().maxCells(heights * 10L + 1).build());
+        assertEquals(BeiDouGridQueryResult.StopReason.MAX_CELLS, limited.getStopReason());
+        assertEquals(heights * 10, limited.getCodes().size());
+        assertTrue(expected.containsAll(limited.getCodes()));
+
+        BeiDouGridQueryResult complete = BeiDouGrid3DRangeQuery.generate3DGridCodesDirectly(geometry, 5, 0, 1000,
+                BeiDouGridQueryBudget.builder().maxCells(expected.size()).build());
+        assertTrue(complete.isComplete());
+        assertEquals(expected, complete.getCodes());
     }
 }
@@ -0,0 +1,90 @@
+package io.github.ywx001.core.utils;
+
+import io.github.ywx001.core.common.BeiDouGridPackedCode;
+import io.github.ywx001.core.decoder.BeiDouGridDecoder;
+import io.github.ywx001.core.encoder.BeiDouGridEncoder;
+import io.github.ywx001.core.model.BeiDouGeoPoint;
+import io.github.ywx001.core.model.BeiDouGrid2D;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static io.github.ywx001.core.utils.BeiDouGridTestFixtures.HEMISPHERE_POINTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit测试类 - 解码器测试
+ */
+@Slf4j
+class BeiDouGridDecoderTest {
+
+    @Test
+    void testDecode2DBoundsContainsPoint() {
+        double[] bounds = new double[4];
+        for (double[] p : HEMISPHERE_POINTS) {
+            for (int level = 1; level <= 10; level++) {
+                String code = BeiDouGridEncoder.encode2D(BeiDouGeoPoint.builder().longitude(p[0]).latitude(p[1]).build(), level);
+                assertEquals(level, BeiDouGridDecoder.decode2DBounds(code, bounds));
+
+                assertTrue(bounds[0] <= p[0] && p[0] <= bounds[1], code + " 经度范围");
+                assertTrue(bounds[2] <= p[1] && p[1] <= bounds[3], code + " 纬度范围");
+            }
+        }
+    }
+
+    @Test
+    void testDecodeEncodeRoundTrip() {
+        // 网格中心点重新编码应得到原网格码，覆盖所有半球
+        Random random = new Random(2020L);
+        double[] bounds = new double[4];
+        for (int i = 0; i < 2000; i++) {
+            double lng = (random.nextDouble() * 2 - 1) * 179.9;
+            double lat = (random.nextDouble() * 2 - 1) * 87.9;
+            int level = 1 + random.nextInt(10);
+            long packed = BeiDouGridEncoder.encode2DPacked(lng, lat, level);
+            String code = BeiDouGridPackedCode.toCode2D(packed);
+
+            BeiDouGridDecoder.decode2DBounds(code, bounds);
+            BeiDouGeoPoint center = BeiDouGeoPoint.builder()
+                    .longitude((bounds[0] + bounds[1]) / 2)
+                    .latitude((bounds[2] + bounds[3]) / 2)
+                    .build();
+            assertEquals(code, BeiDouGridEncoder.encode2D(center, level));
+
+            double[] packedBounds = new double[4];
+            BeiDouGridDecoder.decode2DBounds(packed, packedBounds);
+            assertArrayEquals(bounds, packedBounds);
+
+            BeiDouGeoPoint corner = BeiDouGridDecoder.decode2D(code);
+            assertEquals(lng < 0 ? bounds[1] : bounds[0], corner.getLongitude());
+            assertEquals(lat < 0 ? bounds[3] : bounds[2], corner.getLatitude());
+        }
+    }
+
+    @Test
+    void testDecode2DBoundsIntoGrid() {
+        BeiDouGrid2D grid = new BeiDouGrid2D();
+        double[] bounds = new double[4];
+        for (double[] p : HEMISPHERE_POINTS) {
+            String code = BeiDouGridEncoder.encode2D(BeiDouGeoPoint.builder().longitude(p[0]).latitude(p[1]).build(), 7);
+            BeiDouGridDecoder.decode2DBounds(code, grid);
+            BeiDouGridDecoder.decode2DBounds(code, bounds);
+
+            assertEquals(7, grid.getLevel());
+            assertEquals(code, grid.getCode());
+            assertEquals(bounds[0], grid.getMinLongitude());
+            assertEquals(bounds[1], grid.getMaxLongitude());
+            assertEquals(bounds[2], grid.getMinLatitude());
+            assertEquals(bounds[3], grid.getMaxLatitude());
+        }
+    }
+
+    @Test
+    void testDecode2DBoundsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridDecoder.decode2DBounds("N50J4", new double[4]));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridDecoder.decode2DBounds("N50J47", new double[3]));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridDecoder.decode2DBounds("N5XJ47", new double[4]));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridDecoder.decode2DBounds("", new BeiDouGrid2D()));
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.ywx001.core.utils;
+
+import io.github.ywx001.core.common.BeiDouGridPackedCode;
+import io.github.ywx001.core.encoder.BeiDouGridEncoder;
+import io.github.ywx001.core.model.BeiDouGeoPoint;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit测试类 - 编码器测试（快速实现与BigDecimal参考实现的一致性、批量编码）
+ */
+@Slf4j
+class BeiDouGridEncoderTest {
+
+    /**
+     * 每类随机坐标的样本数
+     */
+    private static final int SAMPLES = 4000;
+
+    /**
+     * 各级网格尺寸（度），用于构造恰好落在网格边界上的坐标
+     */
+    private static final double[] GRID_SIZES = {
+            6, 4, 0.5, 0.25, 10.0 / 60, 1.0 / 60, 4.0 / 3600, 2.0 / 3600,
+            1.0 / 14400, 1.0 / 115200, 1.0 / 921600, 1.0 / 7372800
+    };
+
+    private final Random random = new Random(39409L);
+
+    @Test
+    void testRandomCoordinates() {
+        assertEquivalent(() -> new double[]{randomLng(), randomLat()});
+    }
+
+    @Test
+    void testDecimalCoordinates() {
+        // 有限位小数是最常见的输入，也最容易落在网格边界上
+        assertEquivalent(() -> {
+            double scale = Math.pow(10, random.nextInt(13));
+            return new double[]{Math.round(randomLng() * scale) / scale, Math.round(randomLat() * scale) / scale};
+        });
+    }
+
+    @Test
+    void testGridBoundaries() {
+        assertEquivalent(() -> new double[]{onBoundary(randomLng()), onBoundary(randomLat())});
+        assertEquivalent(() -> new double[]{
+                Math.nextAfter(onBoundary(randomLng()), random.nextBoolean() ? 180 : -180),
+                Math.nextAfter(onBoundary(randomLat()), random.nextBoolean() ? 90 : -90)
+        });
+    }
+
+    @Test
+    void testSpecialValues() {
+        double[] lngs = {0, -0.0, 6, -6, -12, 174, -174, 180, -180, 1e-300, -1e-300, 179.99999999999997, -179.99999999999997};
+        double[] lats = {0, -0.0, 4, -4, 87.99999999999999, -87.99999999999999, 88, -88, 90, -90, 1e-300, -1e-300};
+        for (double lng : lngs) {
+            for (double lat : lats) {
+                for (int level = 1; level <= 10; level++) {
+                    assertEncodeEqual(lng, lat, level);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testInvalidParameters() {
+        BeiDouGeoPoint point = BeiDouGeoPoint.builder().longitude(116.3912345).latitude(39.9065432).build();
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridEncoder.encode2D(null, 5));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridEncoder.encode2D(point, 0));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridEncoder.encode2D(point, 11));
+        assertThrows(IllegalArgumentException.class,
+                () -> BeiDouGridEncoder.encode2D(BeiDouGeoPoint.builder().longitude(Double.NaN).latitude(30).build(), 5));
+        assertThrows(UnsupportedOperationException.class,
+                () -> BeiDouGridEncoder.encode2D(BeiDouGeoPoint.builder().longitude(10).latitude(-89).build(), 5));
+    }
+
+    @Test
+    void testEncode2DBatch() {
+        int count = 1000;
+        double[] lngs = new double[count];
+        double[] lats = new double[count];
+        for (int i = 0; i < count; i++) {
+            lngs[i] = randomLng();
+            lats[i] = randomLat();
+        }
+        long[] out = new long[count];
+        BeiDouGridUtils.encode2DBatch(lngs, lats, 10, out);
+        for (int i = 0; i < count; i++) {
+            assertEquals(BeiDouGridEncoder.encode2DPacked(lngs[i], lats[i], 10), out[i]);
+        }
+    }
+
+    @Test
+    void testEncode3DBatch() {
+        int count = 500;
+        double[] lngs = new double[count];
+        double[] lats = new double[count];
+        double[] heights = new double[count];
+        for (int i = 0; i < count; i++) {
+            lngs[i] = randomLng();
+            lats[i] = randomLat();
+            heights[i] = random.nextDouble() * 10000 - 1000;
+        }
+        long[] planes = new long[count];
+        int[] heightCodes = new int[count];
+        BeiDouGridUtils.encode3DBatch(lngs, lats, heights, 8, planes, heightCodes);
+        for (int i = 0; i < count; i++) {
+            BeiDouGeoPoint point = BeiDouGeoPoint.builder().longitude(lngs[i]).latitude(lats[i]).height(heights[i]).build();
+            assertEquals(BeiDouGridEncoder.encode3D(point, 8), BeiDouGridPackedCode.toCode3D(planes[i], heightCodes[i]));
+        }
+    }
+
+    @Test
+    void testEncodeBatchParallel() {
+        int count = 200_000;
+        double[] lngs = new double[count];
+        double[] lats = new double[count];
+        double[] heights = new double[count];
+        for (int i = 0; i < count; i++) {
+            lngs[i] = randomLng();
+            lats[i] = randomLat();
+            heights[i] = random.nextDouble() * 10000 - 1000;
+        }
+
+        long[] expected = new long[count];
+        long[] actual = new long[count];
+        BeiDouGridEncoder.encode2DBatch(lngs, lats, 10, expected);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BeiDouGridEncoder.encode2DBatchParallel(lngs, lats, 10, actual, pool);
+            assertArrayEquals(expected, actual);
+
+            long[] expectedPlanes = new long[count];
+            int[] expectedHeights = new int[count];
+            long[] planes = new long[count];
+            int[] heightCodes = new int[count];
+            BeiDouGridEncoder.encode3DBatch(lngs, lats, heights, 7, expectedPlanes, expectedHeights);
+            BeiDouGridEncoder.encode3DBatchParallel(lngs, lats, heights, 7, planes, heightCodes, pool);
+            assertArrayEquals(expectedPlanes, planes);
+            assertArrayEquals(expectedHeights, heightCodes);
+
+            lats[count - 1] = 95;
+            assertThrows(IllegalArgumentException.class, () -> BeiDouGridEncoder.encode2DBatchParallel(lngs, lats, 10, actual, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testBatchInvalidParameters() {
+        double[] lngs = {116.39, 120.58};
+        double[] lats = {39.90, 31.14};
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridEncoder.encode2DBatch(lngs, new double[1], 5, new long[2]));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridEncoder.encode2DBatch(lngs, lats, 5, new long[1]));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridEncoder.encode2DBatch(lngs, lats, 11, new long[2]));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridEncoder.encode2DBatch(new double[]{200}, new double[]{10}, 5, new long[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> BeiDouGridEncoder.encode3DBatch(lngs, lats, new double[1], 5, new long[2], new int[2]));
+        assertThrows(IllegalArgumentException.class,
+                () -> BeiDouGridEncoder.encode3DBatch(lngs, lats, new double[2], 5, new long[2], null));
+    }
+
+    private void assertEquivalent(Supplier<double[]> generator) {
+        for (int i = 0; i < SAMPLES; i++) {
+            double[] coordinate = generator.get();
+            assertEncodeEqual(coordinate[0], coordinate[1], 1 + random.nextInt(10));
+        }
+    }
+
+    private static void assertEncodeEqual(double lng, double lat, int level) {
+        BeiDouGeoPoint point = BeiDouGeoPoint.builder().longitude(lng).latitude(lat).build();
+        String expected;
+        try {
+            expected = BeiDouGridEncoder.encode2DReference(point, level);
+        } catch (RuntimeException e) {
+            RuntimeException actual = assertThrows(RuntimeException.class, () -> BeiDouGridEncoder.encode2D(point, level));
+            assertEquals(e.getClass(), actual.getClass());
+            return;
+        }
+        assertEquals(expected, BeiDouGridEncoder.encode2D(point, level), lng + "," + lat + " level " + level);
+    }
+
+    private double randomLng() {
+        return (random.nextDouble() * 2 - 1) * 180;
+    }
+
+    private double randomLat() {
+        return (random.nextDouble() * 2 - 1) * 88;
+    }
+
+    private double onBoundary(double value) {
+        double size = GRID_SIZES[random.nextInt(GRID_SIZES.length)];
+        return Math.floor(value / size) * size;
+    }
+}
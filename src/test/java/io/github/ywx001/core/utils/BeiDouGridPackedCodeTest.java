@@ -0,0 +1,203 @@
+package io.github.ywx001.core.utils;
+
+import io.github.ywx001.core.common.BeiDouGridPackedCode;
+import io.github.ywx001.core.constants.BeiDouGridConstants;
+import io.github.ywx001.core.decoder.BeiDouGridDecoder;
+import io.github.ywx001.core.encoder.BeiDouGridEncoder;
+import io.github.ywx001.core.model.BeiDouGeoPoint;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static io.github.ywx001.core.utils.BeiDouGridTestFixtures.HEMISPHERE_POINTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit测试类 - 北斗网格打包码测试
+ */
+@Slf4j
+class BeiDouGridPackedCodeTest {
+
+    @Test
+    void testEncode2DPackedMatchesString() {
+        for (double[] p : HEMISPHERE_POINTS) {
+            BeiDouGeoPoint point = BeiDouGeoPoint.builder().longitude(p[0]).latitude(p[1]).build();
+            for (int level = 1; level <= 10; level++) {
+                String code = BeiDouGridEncoder.encode2D(point, level);
+                long packed = BeiDouGridEncoder.encode2DPacked(p[0], p[1], level);
+
+                assertEquals(level, BeiDouGridPackedCode.getLevel(packed));
+                assertEquals(code, BeiDouGridPackedCode.toCode2D(packed));
+                assertEquals(packed, BeiDouGridPackedCode.fromCode2D(code));
+            }
+        }
+    }
+
+    @Test
+    void testRandomRoundTrip() {
+        Random random = new Random(20240601L);
+        for (int i = 0; i < 2000; i++) {
+            double lng = (random.nextDouble() * 2 - 1) * 179.9;
+            double lat = (random.nextDouble() * 2 - 1) * 87.9;
+            int level = 1 + random.nextInt(10);
+
+            long packed = BeiDouGridEncoder.encode2DPacked(lng, lat, level);
+            String code = BeiDouGridPackedCode.toCode2D(packed);
+            assertEquals(packed, BeiDouGridPackedCode.fromCode2D(code), code);
+
+            // 字符串编码器在网格尺寸舍入缝隙中会产生越界字符，此类情况打包码取边界网格，不做比较
+            String expected = BeiDouGridEncoder.encode2D(BeiDouGeoPoint.builder().longitude(lng).latitude(lat).build(), level);
+            if (isValidCode2D(expected)) {
+                assertEquals(expected, code);
+            }
+        }
+    }
+
+    private static boolean isValidCode2D(String code) {
+        try {
+            BeiDouGridPackedCode.fromCode2D(code);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Test
+    void testParentAndChild() {
+        for (double[] p : HEMISPHERE_POINTS) {
+            long code10 = BeiDouGridEncoder.encode2DPacked(p[0], p[1], 10);
+            for (int level = 1; level < 10; level++) {
+                long parent = BeiDouGridPackedCode.parent(code10, level);
+                assertEquals(BeiDouGridEncoder.encode2DPacked(p[0], p[1], level), parent);
+
+                long child = BeiDouGridPackedCode.child(parent,
+                        BeiDouGridPackedCode.getLngIndex(code10, level + 1),
+                        BeiDouGridPackedCode.getLatIndex(code10, level + 1));
+                assertEquals(BeiDouGridPackedCode.parent(code10, level + 1), child);
+                assertEquals(parent, BeiDouGridPackedCode.parent(child));
+            }
+        }
+    }
+
+    @Test
+    void testLatticeIndex() {
+        for (double[] p : HEMISPHERE_POINTS) {
+            for (int level = 1; level <= 10; level++) {
+                long code = BeiDouGridEncoder.encode2DPacked(p[0], p[1], level);
+                long lngIndex = BeiDouGridPackedCode.getLatticeLngIndex(code);
+                long latIndex = BeiDouGridPackedCode.getLatticeLatIndex(code);
+                assertEquals(code, BeiDouGridPackedCode.fromLattice(level, lngIndex, latIndex));
+
+                // 带符号行列号与网格边界一致：列号c的网格西边界为c个网格宽度
+                double[] bounds = new double[4];
+                BeiDouGridDecoder.decode2DBounds(code, bounds);
+                assertEquals(lngIndex, Math.round(bounds[0] * 2048 * 3600 / BeiDouGridConstants.GRID_SIZES_UNITS[level][0]));
+                assertEquals(latIndex, Math.round(bounds[2] * 2048 * 3600 / BeiDouGridConstants.GRID_SIZES_UNITS[level][1]));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridPackedCode.fromLattice(1, 30, 0));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridPackedCode.fromLattice(1, 0, -23));
+    }
+
+    @Test
+    void testNeighbors() {
+        Random random = new Random(20);
+        double[] bounds = new double[4];
+        long[] buffer = new long[8];
+        for (int i = 0; i < 2000; i++) {
+            double lng = random.nextDouble() * 360 - 180;
+            double lat = random.nextDouble() * 160 - 80;
+            int level = 1 + random.nextInt(10);
+            long code = BeiDouGridEncoder.encode2DPacked(lng, lat, level);
+            BeiDouGridDecoder.decode2DBounds(code, bounds);
+            double width = bounds[1] - bounds[0];
+            double height = bounds[3] - bounds[2];
+            double centerLng = (bounds[0] + bounds[1]) / 2;
+            double centerLat = (bounds[2] + bounds[3]) / 2;
+
+            // 与把网格中心平移一个网格后重新编码的结果一致（不跨越180°经线和格网南北边界时）
+            int count = BeiDouGridPackedCode.neighbors(code, true, buffer);
+            assertEquals(8, count);
+            int[][] offsets = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}, {1, 1}, {1, -1}, {-1, -1}, {-1, 1}};
+            for (int j = 0; j < count; j++) {
+                double neighborLng = centerLng + offsets[j][0] * width;
+                double neighborLat = centerLat + offsets[j][1] * height;
+                if (Math.abs(neighborLng) < 180 && Math.abs(neighborLat) < 88) {
+                    assertEquals(BeiDouGridEncoder.encode2DPacked(neighborLng, neighborLat, level), buffer[j]);
+                }
+                assertEquals(code, BeiDouGridPackedCode.neighbor(buffer[j], -offsets[j][0], -offsets[j][1]));
+            }
+            assertEquals(4, BeiDouGridPackedCode.neighbors(code, false, buffer));
+        }
+
+        // 跨越赤道、本初子午线和180°经线
+        long code = BeiDouGridEncoder.encode2DPacked(0.0001, 0.0001, 5);
+        assertEquals(BeiDouGridEncoder.encode2DPacked(-0.0001, -0.0001, 5), BeiDouGridPackedCode.neighbor(code, -1, -1));
+        code = BeiDouGridEncoder.encode2DPacked(179.99999, 10.0001, 7);
+        assertEquals(BeiDouGridEncoder.encode2DPacked(-179.99999, 10.0001, 7), BeiDouGridPackedCode.neighbor(code, 1, 0));
+        // 格网北边界以外没有相邻网格
+        code = BeiDouGridEncoder.encode2DPacked(10.5, 87.9999, 3);
+        assertEquals(BeiDouGridPackedCode.INVALID, BeiDouGridPackedCode.neighbor(code, 0, 1));
+        assertEquals(5, BeiDouGridPackedCode.neighbors(code, true, buffer));
+
+        // 字符串接口：北侧相邻网格跨越了1级网格
+        BeiDouGridDecoder.decode2DBounds("N50J475", bounds);
+        double centerLng = (bounds[0] + bounds[1]) / 2;
+        double centerLat = (bounds[2] + bounds[3]) / 2;
+        double width = bounds[1] - bounds[0];
+        double height = bounds[3] - bounds[2];
+        assertEquals(Arrays.asList(
+                        BeiDouGridPackedCode.toCode2D(BeiDouGridEncoder.encode2DPacked(centerLng, centerLat + height, 3)),
+                        BeiDouGridPackedCode.toCode2D(BeiDouGridEncoder.encode2DPacked(centerLng + width, centerLat, 3)),
+                        BeiDouGridPackedCode.toCode2D(BeiDouGridEncoder.encode2DPacked(centerLng, centerLat - height, 3)),
+                        BeiDouGridPackedCode.toCode2D(BeiDouGridEncoder.encode2DPacked(centerLng - width, centerLat, 3))),
+                BeiDouGridUtils.getNeighborGrids2D("N50J475", false));
+    }
+
+    @Test
+    void testDecode2DPacked() {
+        double[] p = HEMISPHERE_POINTS[0];
+        for (int level = 1; level <= 10; level++) {
+            long packed = BeiDouGridEncoder.encode2DPacked(p[0], p[1], level);
+            BeiDouGeoPoint expected = BeiDouGridDecoder.decode2D(BeiDouGridPackedCode.toCode2D(packed));
+            BeiDouGeoPoint actual = BeiDouGridDecoder.decode2D(packed);
+
+            assertEquals(expected.getLongitude(), actual.getLongitude(), 1e-12);
+            assertEquals(expected.getLatitude(), actual.getLatitude(), 1e-12);
+        }
+    }
+
+    @Test
+    void testEncode3DPacked() {
+        double[] heights = {50, 8848.86, -120.5};
+        for (double[] p : HEMISPHERE_POINTS) {
+            for (double height : heights) {
+                BeiDouGeoPoint point = BeiDouGeoPoint.builder().longitude(p[0]).latitude(p[1]).height(height).build();
+                for (int level = 1; level <= 10; level++) {
+                    String code3D = BeiDouGridEncoder.encode3D(point, level);
+                    long plane = BeiDouGridEncoder.encode3DPlanePacked(p[0], p[1], level);
+                    int heightCode = BeiDouGridEncoder.encode3DHeightPacked(height, level);
+
+                    assertEquals(code3D, BeiDouGridPackedCode.toCode3D(plane, heightCode));
+                    assertEquals(plane, BeiDouGridPackedCode.fromCode3D(code3D));
+                    assertEquals(heightCode, BeiDouGridPackedCode.heightFromCode3D(code3D));
+                    assertEquals(BeiDouGridDecoder.decode3D(code3D).getHeight(),
+                            BeiDouGridDecoder.decode3D(plane, heightCode).getHeight(), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridPackedCode.getLevel(BeiDouGridPackedCode.INVALID));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridPackedCode.fromCode2D("N50J4"));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridPackedCode.fromCode2D("N50JC0"));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridEncoder.encode2DPacked(181, 30, 5));
+        assertThrows(UnsupportedOperationException.class, () -> BeiDouGridEncoder.encode2DPacked(120, 88.5, 5));
+        long level10 = BeiDouGridEncoder.encode2DPacked(120.5830508, 31.1415575, 10);
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridPackedCode.child(level10, 0, 0));
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.ywx001.core.utils;
+
+import io.github.ywx001.core.common.BeiDouGridPackedCode;
+import io.github.ywx001.core.common.BeiDouGridProximityQuery;
+import io.github.ywx001.core.constants.BeiDouGridConstants;
+import io.github.ywx001.core.decoder.BeiDouGridDecoder;
+import io.github.ywx001.core.encoder.BeiDouGridEncoder;
+import io.github.ywx001.core.model.BeiDouGeoPoint;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static io.github.ywx001.core.utils.BeiDouGridTestFixtures.HEMISPHERE_POINTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 北斗网格邻近查询测试类
+ */
+@Slf4j
+class BeiDouGridProximityQueryTest {
+
+    @Test
+    void testKRing() {
+        long code = BeiDouGridEncoder.encode2DPacked(0.0001, -0.0001, 6);
+        long lng = BeiDouGridPackedCode.getLatticeLngIndex(code);
+        long lat = BeiDouGridPackedCode.getLatticeLatIndex(code);
+        for (int k = 0; k <= 4; k++) {
+            long[] ring = BeiDouGridProximityQuery.kRing(code, k);
+            Set<Long> unique = new HashSet<>();
+            for (long cell : ring) {
+                assertTrue(unique.add(cell));
+                assertTrue(Math.abs(BeiDouGridPackedCode.getLatticeLngIndex(cell) - lng) <= k);
+                assertTrue(Math.abs(BeiDouGridPackedCode.getLatticeLatIndex(cell) - lat) <= k);
+            }
+            assertEquals((2 * k + 1) * (2 * k + 1), ring.length);
+            assertTrue(unique.contains(code));
+        }
+
+        // 1级网格经度方向只有60列：k环覆盖全部经度时不重复，南北截断到格网边界
+        String level1 = BeiDouGridPackedCode.toCode2D(BeiDouGridEncoder.encode2DPacked(179.5, 10.5, 1));
+        assertEquals(60 * 44, BeiDouGridUtils.getKRingGrids2D(level1, 40).size());
+        assertEquals(60 * 44, new HashSet<>(BeiDouGridUtils.getKRingGrids2D(level1, 40)).size());
+        assertEquals(3 * 3, BeiDouGridUtils.getKRingGrids2D("N50J475", 1).size());
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridProximityQuery.kRing(code, -1));
+    }
+
+    @Test
+    void testCellsWithinMeters() {
+        // 四个半球的测试点之外，再取本初子午线与赤道交点、反子午线和高纬度附近的点
+        double[][] centers = Stream.concat(Arrays.stream(HEMISPHERE_POINTS), Stream.of(
+                new double[]{0.0003, -0.0002}, new double[]{179.9999, 60.5}, new double[]{12.3, 78.9}))
+                .toArray(double[][]::new);
+        double[] bounds = new double[4];
+        for (double[] center : centers) {
+            for (int level = 5; level <= 6; level++) {
+                double radius = 300;
+                long[] cells = BeiDouGridProximityQuery.cellsWithinMeters(center[0], center[1], radius, level);
+                Set<Long> result = new HashSet<>();
+                for (long cell : cells) {
+                    assertTrue(result.add(cell));
+                }
+
+                // 与在中心附近逐网格采样计算的距离比较
+                long code = BeiDouGridEncoder.encode2DPacked(center[0], center[1], level);
+                BeiDouGridDecoder.decode2DBounds(code, bounds);
+                double cellMeters = (bounds[3] - bounds[2]) * Math.PI / 180 * BeiDouGridConstants.EARTH_RADIUS
+                        * Math.cos(Math.toRadians(Math.abs(center[1]) + 1));
+                int k = (int) Math.ceil(radius / cellMeters * 2) + 2;
+                for (long cell : BeiDouGridProximityQuery.kRing(code, k)) {
+                    BeiDouGridDecoder.decode2DBounds(cell, bounds);
+                    double distance = sampledDistance(center, bounds, 16);
+                    if (distance < radius * 0.999) {
+                        assertTrue(result.contains(cell), BeiDouGridPackedCode.toCode2D(cell));
+                    } else if (distance > radius * 1.001) {
+                        assertFalse(result.contains(cell), BeiDouGridPackedCode.toCode2D(cell));
+                    }
+                }
+            }
+        }
+
+        // 半径超过90°弧长：与全部1级网格逐个采样的距离比较，经差不小于90°的网格最近点可能在靠赤道的一侧
+        double[] center = {0, 10};
+        double radius = Math.toRadians(103) * BeiDouGridConstants.EARTH_RADIUS;
+        Set<Long> result = new HashSet<>();
+        for (long cell : BeiDouGridProximityQuery.cellsWithinMeters(center[0], center[1], radius, 1)) {
+            result.add(cell);
+        }
+        assertTrue(result.contains(BeiDouGridPackedCode.fromCode2D("S60V")));
+        for (long cell : BeiDouGridProximityQuery.kRing(BeiDouGridEncoder.encode2DPacked(center[0], center[1], 1), 40)) {
+            BeiDouGridDecoder.decode2DBounds(cell, bounds);
+            double distance = sampledDistance(center, bounds, 64);
+            if (distance < radius * 0.999) {
+                assertTrue(result.contains(cell), BeiDouGridPackedCode.toCode2D(cell));
+            } else if (distance > radius * 1.001) {
+                assertFalse(result.contains(cell), BeiDouGridPackedCode.toCode2D(cell));
+            }
+        }
+
+        Set<String> codes = BeiDouGridUtils.findGridCodesWithinMeters(
+                BeiDouGeoPoint.builder().longitude(116.391).latitude(39.913).build(), 5000, 5);
+        assertTrue(codes.contains(BeiDouGridUtils.encode2D(BeiDouGeoPoint.builder().longitude(116.391).latitude(39.913).build(), 5)));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridProximityQuery.cellsWithinMeters(0, 0, -1, 5));
+    }
+
+    /**
+     * 在网格边界和内部密集采样求点到网格的最短球面距离（米）
+     */
+    private static double sampledDistance(double[] center, double[] bounds, int samples) {
+        double min = Double.MAX_VALUE;
+        for (int i = 0; i <= samples; i++) {
+            for (int j = 0; j <= samples; j++) {
+                double lng = bounds[0] + (bounds[1] - bounds[0]) * i / samples;
+                double lat = bounds[2] + (bounds[3] - bounds[2]) * j / samples;
+                min = Math.min(min, distance(center[0], center[1], lng, lat));
+            }
+        }
+        return min;
+    }
+
+    private static double distance(double lng1, double lat1, double lng2, double lat2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinLat = Math.sin((phi2 - phi1) / 2);
+        double sinLng = Math.sin(Math.toRadians(lng2 - lng1) / 2);
+        double a = sinLat * sinLat + Math.cos(phi1) * Math.cos(phi2) * sinLng * sinLng;
+        return 2 * BeiDouGridConstants.EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
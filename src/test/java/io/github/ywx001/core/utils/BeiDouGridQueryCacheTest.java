@@ -0,0 +1,97 @@
+package io.github.ywx001.core.utils;
+
+import io.github.ywx001.core.common.BeiDouGrid2DRangeQuery;
+import io.github.ywx001.core.common.BeiDouGridQueryCache;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 北斗网格范围查询结果缓存测试类
+ */
+@Slf4j
+class BeiDouGridQueryCacheTest {
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    private Geometry polygon(double... xy) {
+        Coordinate[] coordinates = new Coordinate[xy.length / 2];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = new Coordinate(xy[2 * i], xy[2 * i + 1]);
+        }
+        return geometryFactory.createPolygon(coordinates);
+    }
+
+    @Test
+    void testCacheHit() {
+        BeiDouGridQueryCache cache = new BeiDouGridQueryCache(1_000_000, 16);
+        Geometry geom = polygon(116.30, 39.90, 116.34, 39.90, 116.34, 39.93, 116.30, 39.90);
+        // 同一多边形换一个起点并反转方向
+        Geometry same = polygon(116.34, 39.93, 116.34, 39.90, 116.30, 39.90, 116.34, 39.93);
+
+        Set<String> expected = BeiDouGrid2DRangeQuery.find2DGridCodesInRange(geom, 7);
+        Set<String> first = BeiDouGridUtils.find2DIntersectingGridCodes(geom, 7, cache);
+        Set<String> second = cache.find2DGridCodesInRange(same, 7);
+        assertEquals(expected, first);
+        assertEquals(expected, second);
+        assertSame(first, second);
+        for (String code : expected) {
+            assertTrue(second.contains(code));
+        }
+        assertFalse(second.contains("N50"));
+        assertFalse(second.contains("无效"));
+        assertThrows(UnsupportedOperationException.class, () -> second.add("N50J475"));
+        assertThrows(UnsupportedOperationException.class, second::clear);
+
+        cache.find2DGridCodesInRange(geom, 6);
+        BeiDouGridQueryCache.Stats stats = cache.getStats();
+        log.info("缓存统计：{}", stats);
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(2, stats.getEntries());
+        assertEquals(expected.size() + BeiDouGrid2DRangeQuery.count2DGridCodesInRange(geom, 6), stats.getWeight());
+    }
+
+    @Test
+    void testEviction() {
+        Geometry a = polygon(116.30, 39.90, 116.34, 39.90, 116.34, 39.93, 116.30, 39.90);
+        Geometry b = polygon(-73.99, 40.73, -73.97, 40.73, -73.97, 40.75, -73.99, 40.73);
+        Geometry c = polygon(151.20, -33.86, 151.22, -33.86, 151.22, -33.84, 151.20, -33.86);
+        int level = 6;
+
+        // 条目数上限：最久未访问的a被淘汰
+        BeiDouGridQueryCache cache = new BeiDouGridQueryCache(Long.MAX_VALUE, 2);
+        cache.find2DGridCodesInRange(a, level);
+        cache.find2DGridCodesInRange(b, level);
+        cache.find2DGridCodesInRange(a, level);
+        cache.find2DGridCodesInRange(c, level);
+        assertEquals(1, cache.getStats().getEvictions());
+        cache.find2DGridCodesInRange(a, level);
+        assertEquals(2, cache.getStats().getHits());
+        cache.find2DGridCodesInRange(b, level);
+        assertEquals(2, cache.getStats().getHits());
+
+        // 网格总数上限：超出上限的结果不缓存，写入新结果时按LRU淘汰
+        long sizeA = BeiDouGrid2DRangeQuery.count2DGridCodesInRange(a, level);
+        long sizeB = BeiDouGrid2DRangeQuery.count2DGridCodesInRange(b, level);
+        BeiDouGridQueryCache bounded = new BeiDouGridQueryCache(Math.max(sizeA, sizeB), 16);
+        bounded.find2DGridCodesInRange(a, level);
+        bounded.find2DGridCodesInRange(b, level);
+        BeiDouGridQueryCache.Stats stats = bounded.getStats();
+        assertEquals(1, stats.getEntries());
+        assertEquals(sizeB, stats.getWeight());
+        assertEquals(1, stats.getEvictions());
+        bounded.find2DGridCodesInRange(a, level + 2);
+        assertEquals(1, bounded.getStats().getEntries());
+
+        bounded.clear();
+        assertEquals(0, bounded.getStats().getWeight());
+        assertThrows(IllegalArgumentException.class, () -> new BeiDouGridQueryCache(0, 1));
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.ywx001.core.utils;
+
+import io.github.ywx001.core.common.BeiDouGridPackedCode;
+import io.github.ywx001.core.common.BeiDouGridRegionCoverer;
+import io.github.ywx001.core.decoder.BeiDouGridDecoder;
+import io.github.ywx001.core.encoder.BeiDouGridEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.Set;
+
+import static io.github.ywx001.core.utils.BeiDouGridTestFixtures.HEMISPHERE_POINTS;
+import static io.github.ywx001.core.utils.BeiDouGridTestFixtures.createPolygon;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 北斗网格混合层级覆盖测试类
+ */
+@Slf4j
+class BeiDouGridRegionCovererTest {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    @Test
+    void testCoveringCoversGeometry() {
+        double size = 0.05;
+        for (double[] origin : HEMISPHERE_POINTS) {
+            Geometry polygon = createPolygon(origin, size);
+            Set<String> covering = BeiDouGridUtils.findCoveringGridCodes(polygon, 3, 7, 500);
+            log.info("混合层级覆盖共 {} 个网格", covering.size());
+            assertFalse(covering.isEmpty());
+            assertTrue(covering.size() <= 500);
+
+            // 每个网格都与多边形相交，且级别在范围内
+            double[][] cellBounds = new double[covering.size()][];
+            int index = 0;
+            for (String code : covering) {
+                double[] bounds = new double[4];
+                BeiDouGridDecoder.decode2DBounds(code, bounds);
+                assertTrue(polygon.intersects(GEOMETRY_FACTORY.toGeometry(new Envelope(bounds[0], bounds[1], bounds[2], bounds[3]))), code);
+                int level = BeiDouGridPackedCode.getLevel(BeiDouGridPackedCode.fromCode2D(code));
+                assertTrue(level >= 3 && level <= 7, code);
+                cellBounds[index++] = bounds;
+            }
+
+            // 多边形内的点都落在某个覆盖网格内
+            for (double lng = origin[0] - size; lng <= origin[0] + size * 2; lng += size / 40) {
+                for (double lat = origin[1] - size; lat <= origin[1] + size * 2; lat += size / 40) {
+                    if (polygon.contains(GEOMETRY_FACTORY.createPoint(new Coordinate(lng, lat)))) {
+                        boolean covered = false;
+                        for (double[] bounds : cellBounds) {
+                            if (lng >= bounds[0] && lng <= bounds[1] && lat >= bounds[2] && lat <= bounds[3]) {
+                                covered = true;
+                                break;
+                            }
+                        }
+                        assertTrue(covered, lng + "," + lat);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCoveringMergesCompleteSiblings() {
+        // 略小于一个2级网格的矩形：边界处的子网格细化到最大级别后逐级合并，最终只剩该2级网格
+        long parent = BeiDouGridEncoder.encode2DPacked(116.3912345, 39.9065432, 2);
+        double[] bounds = new double[4];
+        BeiDouGridDecoder.decode2DBounds(parent, bounds);
+        double margin = 1e-9;
+        Geometry rectangle = GEOMETRY_FACTORY.toGeometry(new Envelope(
+                bounds[0] + margin, bounds[1] - margin, bounds[2] + margin, bounds[3] - margin));
+
+        Set<String> covering = BeiDouGridUtils.findCoveringGridCodes(rectangle, 1, 4, 10000);
+        assertEquals(Set.of(BeiDouGridPackedCode.toCode2D(parent)), covering);
+
+        // 最小级别高于2级时不合并到2级
+        covering = BeiDouGridRegionCoverer.getCovering(rectangle, 3, 4, 10000);
+        assertEquals(6, covering.size());
+    }
+
+    @Test
+    void testCoveringBudget() {
+        Geometry polygon = createPolygon(HEMISPHERE_POINTS[0], 0.05);
+        Set<String> coarse = BeiDouGridUtils.findCoveringGridCodes(polygon, 1, 8, 20);
+        Set<String> fine = BeiDouGridUtils.findCoveringGridCodes(polygon, 1, 8, 2000);
+        assertTrue(coarse.size() <= 20);
+        assertTrue(fine.size() <= 2000);
+        assertTrue(coarse.size() < fine.size());
+
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridRegionCoverer.getCovering(polygon, 5, 4, 100));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridRegionCoverer.getCovering(polygon, 1, 11, 100));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridRegionCoverer.getCovering(polygon, 1, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> BeiDouGridRegionCoverer.getCovering(null, 1, 4, 100));
+    }
+
+    @Test
+    void testInteriorCovering() {
+        Geometry polygon = createPolygon(HEMISPHERE_POINTS[3], 0.05);
+        Geometry boundary = polygon.getBoundary();
+
+        // 单一级别：恰好为该级别相交网格中完全位于内部（不触及边界）的网格
+        int level = 6;
+        Set<String> interior = BeiDouGridUtils.findInteriorGridCodes(polygon, level, level, Integer.MAX_VALUE);
+        int expected = 0;
+        double[] bounds = new double[4];
+        for (String code : BeiDouGridUtils.find2DIntersectingGridCodes(polygon, level)) {
+            BeiDouGridDecoder.decode2DBounds(code, bounds);
+            Geometry cell = GEOMETRY_FACTORY.toGeometry(new Envelope(bounds[0], bounds[1], bounds[2], bounds[3]));
+            if (polygon.contains(cell) && !boundary.intersects(cell)) {
+                expected++;
+                assertTrue(interior.contains(code), code);
+            }
+        }
+        assertEquals(expected, interior.size());
+
+        // 混合层级：网格都在内部，且在预算内
+        Set<String> mixed = BeiDouGridRegionCoverer.getInteriorCovering(polygon, 1, 8, 300);
+        assertFalse(mixed.isEmpty());
+        assertTrue(mixed.size() <= 300);
+        for (String code : mixed) {
+            BeiDouGridDecoder.decode2DBounds(code, bounds);
+            assertTrue(polygon.contains(GEOMETRY_FACTORY.toGeometry(new Envelope(bounds[0], bounds[1], bounds[2], bounds[3]))), code);
+        }
+
+        // 线没有内部网格
+        Geometry line = GEOMETRY_FACTORY.createLineString(new Coordinate[]{
+                new Coordinate(116.35, 39.90), new Coordinate(116.45, 39.90)});
+        assertTrue(BeiDouGridUtils.findInteriorGridCodes(line, 1, 6, 1000).isEmpty());
+    }
+}
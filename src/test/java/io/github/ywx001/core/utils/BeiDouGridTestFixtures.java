@@ -0,0 +1,45 @@
+package io.github.ywx001.core.utils;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+/**
+ * 测试共用的坐标点和几何图形
+ */
+final class BeiDouGridTestFixtures {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    /**
+     * 四个半球的测试坐标点（避开网格边界上的整数值）
+     */
+    static final double[][] HEMISPHERE_POINTS = {
+            {120.5830508, 31.1415575},   // NE
+            {-73.9856731, 40.7484452},   // NW
+            {151.2152967, -33.8567844},  // SE
+            {-58.3815591, -34.6036844}   // SW
+    };
+
+    private BeiDouGridTestFixtures() {
+    }
+
+    /**
+     * 以指定点为一个顶点创建不规则四边形，各边都不与经纬线平行
+     *
+     * @param origin 起始顶点 {经度, 纬度}
+     * @param size   四边形的大致边长（度）
+     * @return 多边形
+     */
+    static Geometry createPolygon(double[] origin, double size) {
+        double lng = origin[0];
+        double lat = origin[1];
+        return GEOMETRY_FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(lng, lat),
+                new Coordinate(lng + size, lat + size * 0.3),
+                new Coordinate(lng + size * 0.7, lat + size),
+                new Coordinate(lng - size * 0.2, lat + size * 0.6),
+                new Coordinate(lng, lat)
+        });
+    }
+}